@@ -2,12 +2,28 @@ package com.monikatammineni.fsadproject;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.Map;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableAsync
 public class FsadProjectApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(FsadProjectApplication.class, args);
+        SpringApplication application = new SpringApplication(FsadProjectApplication.class);
+        // Requests spend most of their time blocked on MySQL and S3, so by default Tomcat and @Async/@Scheduled work
+        // run on virtual threads; set spring.threads.virtual.enabled=false to go back to the platform thread pool.
+        // Open-in-view is off so a request does not keep a pooled connection while it streams from S3.
+        // Behind the load balancer getRemoteAddr() is the proxy, so Tomcat's RemoteIpValve resolves the client from
+        // X-Forwarded-For; it only trusts that header from server.tomcat.remoteip.internal-proxies (private ranges).
+        application.setDefaultProperties(Map.of(
+                "spring.threads.virtual.enabled", "true",
+                "spring.jpa.open-in-view", "false",
+                "server.forward-headers-strategy", "native"));
+        application.run(args);
     }
 
 }
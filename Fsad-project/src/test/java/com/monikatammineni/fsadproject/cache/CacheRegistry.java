@@ -0,0 +1,28 @@
+package com.monikatammineni.fsadproject.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of the application's in-memory caches so their statistics can be reported in one place.
+ */
+@Component
+public class CacheRegistry {
+
+    private final Map<String, LruCache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    public <K, V> LruCache<K, V> create(String name, int maxSize) {
+        LruCache<K, V> cache = new LruCache<>(maxSize);
+        caches.put(name, cache);
+        return cache;
+    }
+
+    public Map<String, CacheStats> stats() {
+        Map<String, CacheStats> stats = new TreeMap<>();
+        caches.forEach((name, cache) -> stats.put(name, cache.stats()));
+        return stats;
+    }
+}
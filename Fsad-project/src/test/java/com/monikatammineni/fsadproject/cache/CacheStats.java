@@ -0,0 +1,9 @@
+package com.monikatammineni.fsadproject.cache;
+
+public record CacheStats(int size, int maxSize, long hits, long misses, long evictions) {
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
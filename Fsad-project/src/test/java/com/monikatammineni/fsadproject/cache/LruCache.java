@@ -0,0 +1,247 @@
+package com.monikatammineni.fsadproject.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Size-bounded least-recently-used cache with optional per-entry expiry and hit/miss/eviction counters.
+ * <p>
+ * Keys are spread by hash over up to {@value #MAX_SEGMENTS} independently locked segments, each an LRU of its share
+ * of {@code maxSize}, so lookups on the request path only contend with lookups that land in the same segment.
+ * Eviction is least-recently-used within a segment rather than across the whole cache.
+ * <p>
+ * Loaders run outside the lock. A value loaded while an invalidation happened is returned to its caller but not
+ * cached, so a slow read can't put back data that a concurrent write just invalidated.
+ */
+public class LruCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_SIZE = 16;
+
+    private final int maxSize;
+    private final Segment<K, V>[] segments;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public LruCache(int maxSize) {
+        this.maxSize = maxSize;
+        // Small caches keep a single segment so their LRU order stays exact
+        int count = 1;
+        while (count < MAX_SEGMENTS && maxSize / (count * 2) >= MIN_SEGMENT_SIZE) {
+            count *= 2;
+        }
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // Spread the remainder so the segment sizes add up to maxSize exactly
+            segments[i] = new Segment<>(maxSize / count + (i < maxSize % count ? 1 : 0), evictions);
+        }
+    }
+
+    // Cached value, or null if absent or expired
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            Entry<V> entry = segment.entries.get(key);
+            if (entry != null && entry.expired()) {
+                segment.entries.remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.value();
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    // Read-through lookup; a null result from the loader is returned but not cached
+    public V get(K key, Function<K, V> loader) {
+        Segment<K, V> segment = segmentFor(key);
+        long loadGeneration;
+        segment.lock.lock();
+        try {
+            Entry<V> entry = segment.entries.get(key);
+            if (entry != null && !entry.expired()) {
+                hits.incrementAndGet();
+                return entry.value();
+            }
+            misses.incrementAndGet();
+            loadGeneration = segment.generation;
+        } finally {
+            segment.lock.unlock();
+        }
+        V value = loader.apply(key);
+        if (value != null) {
+            segment.lock.lock();
+            try {
+                if (segment.generation == loadGeneration) {
+                    segment.entries.put(key, new Entry<>(value, Long.MAX_VALUE));
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Drops the entry and caches a freshly loaded value in its place, unless the key is invalidated or reloaded again
+     * while the loader runs. Of two overlapping reloads only the one that started last is kept, so a rebuild that
+     * began before a change can't overwrite one that began after it.
+     */
+    public void reload(K key, Function<K, V> loader) {
+        Segment<K, V> segment = segmentFor(key);
+        long loadGeneration;
+        segment.lock.lock();
+        try {
+            loadGeneration = ++segment.generation;
+            segment.entries.remove(key);
+        } finally {
+            segment.lock.unlock();
+        }
+        V value = loader.apply(key);
+        if (value != null) {
+            segment.lock.lock();
+            try {
+                if (segment.generation == loadGeneration) {
+                    segment.entries.put(key, new Entry<>(value, Long.MAX_VALUE));
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    public void put(K key, V value) {
+        put(key, value, Long.MAX_VALUE);
+    }
+
+    // Caches the value until the given epoch-millisecond instant
+    public void put(K key, V value, long expiresAtMillis) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.entries.put(key, new Entry<>(value, expiresAtMillis));
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public boolean contains(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            Entry<V> entry = segment.entries.get(key);
+            return entry != null && !entry.expired();
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.generation++;
+            segment.entries.remove(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void invalidateIf(Predicate<K> predicate) {
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.generation++;
+                segment.entries.keySet().removeIf(predicate);
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.generation++;
+                segment.entries.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    // Drops expired entries; expiry is otherwise only noticed on access
+    public void purgeExpired() {
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                Iterator<Entry<V>> iterator = segment.entries.values().iterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next().expired()) {
+                        iterator.remove();
+                    }
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    public CacheStats stats() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.entries.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return new CacheStats(size, maxSize, hits.get(), misses.get(), evictions.get());
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key == null ? 0 : key.hashCode();
+        // Mix the high bits in, since Integer keys hash to themselves
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    private static final class Segment<K, V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<K, Entry<V>> entries;
+        private long generation; // bumped on every invalidation, guarded by lock
+
+        private Segment(int maxSize, AtomicLong evictions) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                    if (size() > maxSize) {
+                        evictions.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAtMillis) {
+        private boolean expired() {
+            return expiresAtMillis != Long.MAX_VALUE && System.currentTimeMillis() >= expiresAtMillis;
+        }
+    }
+}
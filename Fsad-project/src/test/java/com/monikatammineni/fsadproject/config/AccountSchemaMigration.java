@@ -0,0 +1,95 @@
+package com.monikatammineni.fsadproject.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Adds the unique email indexes and the credentials.user_id index that login and registration look up by, on
+ * schemas created before they were declared. Registration relies on the unique indexes to reject a concurrent
+ * duplicate, so the EntityManagerFactory depends on this bean and any failure stops startup. That includes a table
+ * that already holds duplicate emails: picking which account to keep is not something to automate, so they are
+ * reported and have to be merged by hand first.
+ */
+@Component
+public class AccountSchemaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountSchemaMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AccountSchemaMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void run() {
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                migrate(connection);
+                return null;
+            });
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Account schema migration failed", e);
+        }
+    }
+
+    private void migrate(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            createUniqueEmailIndex(statement, "user", "uk_user_email");
+            createUniqueEmailIndex(statement, "credentials", "uk_credentials_email");
+            if (tableExists(statement, "credentials") && !indexExists(statement, "credentials", "idx_credentials_user_id")) {
+                statement.execute("CREATE INDEX idx_credentials_user_id ON credentials (user_id)");
+                log.info("Created index idx_credentials_user_id on credentials (user_id)");
+            }
+        }
+    }
+
+    private void createUniqueEmailIndex(Statement statement, String table, String name) throws SQLException {
+        if (!tableExists(statement, table) || indexExists(statement, table, name)) {
+            return;
+        }
+        try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM (SELECT email FROM `" + table + "`"
+                + " WHERE email IS NOT NULL GROUP BY email HAVING COUNT(*) > 1) duplicates")) {
+            if (rs.next() && rs.getLong(1) > 0) {
+                throw new IllegalStateException("Cannot create " + name + ": " + rs.getLong(1)
+                        + " emails appear more than once in " + table + "; merge those accounts and restart");
+            }
+        }
+        statement.execute("CREATE UNIQUE INDEX " + name + " ON `" + table + "` (email)");
+        log.info("Created unique index {} on {} (email)", name, table);
+    }
+
+    private boolean tableExists(Statement statement, String table) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT 1 FROM information_schema.TABLES"
+                + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '" + table + "'")) {
+            return rs.next();
+        }
+    }
+
+    private boolean indexExists(Statement statement, String table, String name) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT 1 FROM information_schema.STATISTICS"
+                + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '" + table + "' AND INDEX_NAME = '" + name + "'")) {
+            return rs.next();
+        }
+    }
+
+    // Makes the EntityManagerFactory wait for the migration, the same way Flyway's auto-configuration does
+    @Component
+    static class EntityManagerFactoryDependency extends EntityManagerFactoryDependsOnPostProcessor {
+
+        EntityManagerFactoryDependency() {
+            super(AccountSchemaMigration.class);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.monikatammineni.fsadproject.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * One-time rewrite of the legacy free-form appointment_date / appointment_time VARCHAR columns into
+ * DATE / TIME columns, plus the (doctor, start) and (patient, start) indexes used by the calendar queries, and
+ * the id sequence that replaced AUTO_INCREMENT. The EntityManagerFactory depends on this bean, so it runs before
+ * Hibernate validates or updates the schema and before anything can read appointments; it does nothing once the
+ * columns are already typed. The original text is kept in appointment_date_legacy / appointment_time_legacy, so
+ * values the conversion could not parse (and left NULL) can still be repaired by hand.
+ */
+@Component
+public class AppointmentSchemaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentSchemaMigration.class);
+
+    // Formats the frontend and manual entries have used so far; anything else becomes NULL
+    private static final String DATE_EXPRESSION = "CASE"
+            + " WHEN appointment_date REGEXP '^[0-9]{4}-[0-9]{1,2}-[0-9]{1,2}$' THEN DATE_FORMAT(STR_TO_DATE(appointment_date, '%Y-%m-%d'), '%Y-%m-%d')"
+            + " WHEN appointment_date REGEXP '^[0-9]{1,2}/[0-9]{1,2}/[0-9]{4}$' THEN DATE_FORMAT(STR_TO_DATE(appointment_date, '%m/%d/%Y'), '%Y-%m-%d')"
+            + " WHEN appointment_date REGEXP '^[0-9]{1,2}-[0-9]{1,2}-[0-9]{4}$' THEN DATE_FORMAT(STR_TO_DATE(appointment_date, '%d-%m-%Y'), '%Y-%m-%d')"
+            + " ELSE NULL END";
+
+    private static final String TIME_EXPRESSION = "CASE"
+            + " WHEN appointment_time REGEXP '^[0-9]{1,2}:[0-9]{2}(:[0-9]{2})?$' THEN TIME_FORMAT(TIME(appointment_time), '%H:%i:%s')"
+            + " WHEN appointment_time REGEXP '^[0-9]{1,2}:[0-9]{2} ?[AaPp][Mm]$' THEN TIME_FORMAT(STR_TO_DATE(REPLACE(UPPER(appointment_time), ' ', ''), '%h:%i%p'), '%H:%i:%s')"
+            + " ELSE NULL END";
+
+    private static final int ID_ALLOCATION_SIZE = 50; // matches @SequenceGenerator on Appointment
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AppointmentSchemaMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // A failure stops startup: Hibernate would otherwise map LocalDate/LocalTime onto the old text columns
+    @PostConstruct
+    public void run() {
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                migrate(connection);
+                return null;
+            });
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Appointment schema migration failed", e);
+        }
+    }
+
+    private void migrate(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            String dateType = columnType(statement, "appointment_date");
+            String timeType = columnType(statement, "appointment_time");
+            if (dateType == null || timeType == null) {
+                return; // fresh schema, nothing to rewrite
+            }
+
+            if (!"date".equals(dateType) || !"time".equals(timeType)) {
+                // Same connection throughout so the relaxed sql_mode only applies to the rewrite
+                String sqlMode = null;
+                try (ResultSet rs = statement.executeQuery("SELECT @@SESSION.sql_mode")) {
+                    if (rs.next()) {
+                        sqlMode = rs.getString(1);
+                    }
+                }
+                statement.execute("SET SESSION sql_mode = ''");
+                try {
+                    if (!"date".equals(dateType)) {
+                        preserveLegacyColumn(statement, "appointment_date");
+                        int rows = statement.executeUpdate("UPDATE appointment SET appointment_date = " + DATE_EXPRESSION);
+                        statement.execute("ALTER TABLE appointment MODIFY appointment_date DATE NULL");
+                        log.info("Converted appointment_date to DATE ({} rows rewritten)", rows);
+                        reportUnparsed(statement, "appointment_date");
+                    }
+                    if (!"time".equals(timeType)) {
+                        preserveLegacyColumn(statement, "appointment_time");
+                        int rows = statement.executeUpdate("UPDATE appointment SET appointment_time = " + TIME_EXPRESSION);
+                        statement.execute("ALTER TABLE appointment MODIFY appointment_time TIME NULL");
+                        log.info("Converted appointment_time to TIME ({} rows rewritten)", rows);
+                        reportUnparsed(statement, "appointment_time");
+                    }
+                } finally {
+                    statement.execute("SET SESSION sql_mode = '" + (sqlMode == null ? "" : sqlMode) + "'");
+                }
+            }
+
+            createIndexIfMissing(statement, "idx_appointment_doctor_start", "doctor_id, appointment_date, appointment_time");
+            createIndexIfMissing(statement, "idx_appointment_patient_start", "patient_id, appointment_date, appointment_time");
+            alignIdSequence(statement);
+        }
+    }
+
+    // Copies the free-form text aside before it is rewritten; a rerun after a partial migration keeps the first copy
+    private void preserveLegacyColumn(Statement statement, String column) throws SQLException {
+        String legacyColumn = column + "_legacy";
+        if (columnType(statement, legacyColumn) == null) {
+            statement.execute("ALTER TABLE appointment ADD COLUMN " + legacyColumn + " VARCHAR(255) NULL");
+            statement.executeUpdate("UPDATE appointment SET " + legacyColumn + " = " + column);
+        }
+    }
+
+    private void reportUnparsed(Statement statement, String column) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM appointment WHERE " + column
+                + " IS NULL AND " + column + "_legacy IS NOT NULL AND " + column + "_legacy <> ''")) {
+            if (rs.next() && rs.getLong(1) > 0) {
+                log.warn("{} appointments have an unparseable {}; the original text is in {}_legacy",
+                        rs.getLong(1), column, column);
+            }
+        }
+    }
+
+    // Ids used to come from AUTO_INCREMENT; move the pooled sequence table past them, leaving a full
+    // allocation block of headroom whichever end of the block Hibernate treats the stored value as
+    private void alignIdSequence(Statement statement) throws SQLException {
+        statement.execute("CREATE TABLE IF NOT EXISTS appointment_seq (next_val BIGINT)");
+        try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM appointment_seq")) {
+            if (rs.next() && rs.getLong(1) == 0) {
+                statement.execute("INSERT INTO appointment_seq (next_val) VALUES (1)");
+            }
+        }
+        statement.executeUpdate("UPDATE appointment_seq SET next_val = GREATEST(next_val,"
+                + " (SELECT COALESCE(MAX(appointment_id), 0) + " + (ID_ALLOCATION_SIZE + 1) + " FROM appointment))");
+    }
+
+    private String columnType(Statement statement, String column) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT DATA_TYPE FROM information_schema.COLUMNS"
+                + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'appointment' AND COLUMN_NAME = '" + column + "'")) {
+            return rs.next() ? rs.getString(1).toLowerCase() : null;
+        }
+    }
+
+    private void createIndexIfMissing(Statement statement, String name, String columns) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT 1 FROM information_schema.STATISTICS"
+                + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'appointment' AND INDEX_NAME = '" + name + "'")) {
+            if (rs.next()) {
+                return;
+            }
+        }
+        statement.execute("CREATE INDEX " + name + " ON appointment (" + columns + ")");
+        log.info("Created index {} on appointment ({})", name, columns);
+    }
+
+    // Makes the EntityManagerFactory wait for the migration, the same way Flyway's auto-configuration does
+    @Component
+    static class EntityManagerFactoryDependency extends EntityManagerFactoryDependsOnPostProcessor {
+
+        EntityManagerFactoryDependency() {
+            super(AppointmentSchemaMigration.class);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.monikatammineni.fsadproject.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JpaBatchingConfig {
+
+    // Group inserts/updates into JDBC batches; explicit spring.jpa.properties.* settings still take precedence
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer(@Value("${jpa.jdbc-batch-size:50}") int batchSize) {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(batchSize));
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, "true");
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, "true");
+        };
+    }
+}
@@ -4,11 +4,20 @@ import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Configuration
+@ConditionalOnProperty(name = "storage.backend", havingValue = "s3", matchIfMissing = true)
 public class S3Config {
 
     @Value("${aws.accessKeyId}")
@@ -28,4 +37,25 @@ public class S3Config {
                 .withCredentials(new AWSStaticCredentialsProvider(awsCredentials))
                 .build();
     }
+
+    // Large uploads go up as parallel multipart parts on a bounded pool; when the queue is full the submitting
+    // thread uploads the part itself, which throttles new parts instead of failing the transfer
+    @Bean(destroyMethod = "shutdownNow")
+    public TransferManager transferManager(AmazonS3 amazonS3,
+                                           @Value("${aws.s3.transfer-threads:8}") int threads,
+                                           @Value("${aws.s3.transfer-queue-size:32}") int queueSize,
+                                           @Value("${aws.s3.upload-part-size:8388608}") long partSize) {
+        AtomicInteger counter = new AtomicInteger();
+        return TransferManagerBuilder.standard()
+                .withS3Client(amazonS3)
+                .withExecutorFactory(() -> new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(queueSize), runnable -> {
+                            Thread thread = new Thread(runnable, "s3-transfer-" + counter.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }, new ThreadPoolExecutor.CallerRunsPolicy()))
+                .withMinimumUploadPartSize(partSize)
+                .withMultipartUploadThreshold(2 * partSize)
+                .build();
+    }
 }
@@ -1,22 +1,29 @@
-
 package com.monikatammineni.fsadproject.config;
 
+import com.monikatammineni.fsadproject.jwt.TokenAuthenticationFilter;
+import com.monikatammineni.fsadproject.jwt.TokenHelper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
+@EnableMethodSecurity
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, TokenHelper tokenHelper) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable) // Disable CSRF for simplicity (not production safe)
                 .headers(headers -> headers.frameOptions(HeadersConfigurer.FrameOptionsConfig::sameOrigin)) // Allow iframe from same origin
-                .authorizeHttpRequests(auth -> auth.anyRequest().permitAll()); // Allow all requests
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)) // Token on every request, no server-side session
+                .addFilterBefore(new TokenAuthenticationFilter(tokenHelper), UsernamePasswordAuthenticationFilter.class)
+                .authorizeHttpRequests(auth -> auth.anyRequest().permitAll()); // Allow all requests, endpoints check the principal themselves
         return http.build();
     }
-}
\ No newline at end of file
+}
@@ -1,13 +1,24 @@
 package com.monikatammineni.fsadproject.controllers;
 
 import com.monikatammineni.fsadproject.entity.Appointment;
+import com.monikatammineni.fsadproject.entity.AppointmentOperation;
+import com.monikatammineni.fsadproject.entity.AppointmentSeries;
 import com.monikatammineni.fsadproject.service.AppointmentService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/appointment")
@@ -22,38 +33,125 @@ public class AppointmentController {
     private AppointmentService appointmentService;
 
     @GetMapping("/getAllAppointments")
-    public ResponseEntity<Object> getAllAppointments(@RequestParam("token") String token) {
+    public ResponseEntity<Object> getAllAppointments(@RequestParam(value = "token", required = false) String token) {
         return appointmentService.getAllAppointments();
     }
 
+    // Cursor-paginated listing; pass the returned nextCursor back as cursor to fetch the following page
+    @GetMapping("/listAppointments")
+    public ResponseEntity<Object> listAppointments(@RequestParam(value = "token", required = false) String token,
+                                                   @RequestParam(value = "cursor", required = false) Integer cursor,
+                                                   @RequestParam(value = "limit", defaultValue = "50") int limit,
+                                                   @RequestParam(value = "doctorId", required = false) Integer doctorId,
+                                                   @RequestParam(value = "patientId", required = false) Integer patientId,
+                                                   @RequestParam(value = "status", required = false) Appointment.statusType status,
+                                                   @RequestParam(value = "fromDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                                   @RequestParam(value = "toDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+        return appointmentService.listAppointments(token, cursor, limit, doctorId, patientId, status, fromDate, toDate);
+    }
+
+    // Server-Sent Events stream of appointment created/updated/deleted events, optionally for one doctor only;
+    // non-staff callers only receive events for their own appointments
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@RequestParam(value = "token", required = false) String token,
+                                             @RequestParam(value = "doctorId", required = false) Integer doctorId) {
+        return appointmentService.subscribe(token, doctorId);
+    }
+
     @GetMapping("/getAppointment")
-    public ResponseEntity<Object> getAppointment(@RequestParam("token") String token, @RequestParam("appointmentId") int appointmentId) {
+    public ResponseEntity<Object> getAppointment(@RequestParam(value = "token", required = false) String token, @RequestParam("appointmentId") int appointmentId) {
         return appointmentService.getAppointment(appointmentId);
     }
 
     @PostMapping("/editAppointment")
-    public ResponseEntity<Object> editAppointment(@RequestParam("token") String token, @RequestBody Appointment appointment) {
+    public ResponseEntity<Object> editAppointment(@RequestParam(value = "token", required = false) String token, @RequestBody Appointment appointment) {
         return appointmentService.editAppointment(appointment);
     }
 
     @PostMapping("/deleteAppointment")
-    public ResponseEntity<Object> deleteAppointment(@RequestParam("token") String token, @RequestParam("appointmentId") int appointmentId) {
+    public ResponseEntity<Object> deleteAppointment(@RequestParam(value = "token", required = false) String token, @RequestParam("appointmentId") int appointmentId) {
         return appointmentService.deleteAppointment(appointmentId);
     }
 
     @PostMapping("/createAppointment")
-    public ResponseEntity<Object> createAppointment(@RequestParam("token") String token, @RequestBody Appointment appointment) {
+    public ResponseEntity<Object> createAppointment(@RequestParam(value = "token", required = false) String token, @RequestBody Appointment appointment) {
         log.info("Appointment Received: "+ appointment.toString());
         return appointmentService.createAppointment(token, appointment);
     }
+    // Many create/update/cancel operations in one call; returns one result per operation, in request order
+    @PostMapping("/bulk")
+    public ResponseEntity<Object> bulk(@RequestParam(value = "token", required = false) String token, @RequestBody List<AppointmentOperation> operations) {
+        return appointmentService.applyOperations(token, operations);
+    }
     @GetMapping("/getAllAppointmentsByUserId")
-    public ResponseEntity<Object> getAllAppointmentsByPatientId(@RequestParam("token") String token, @RequestParam("patientId") int patientId) {
+    public ResponseEntity<Object> getAllAppointmentsByPatientId(@RequestParam(value = "token", required = false) String token, @RequestParam("patientId") int patientId) {
         return appointmentService.getAllAppointmentsByPatientId(patientId);
     }
+    // Same as getAllAppointmentsByUserId, but streamed straight from the database cursor to the response
+    @GetMapping("/streamAppointmentsByUserId")
+    public ResponseEntity<StreamingResponseBody> streamAppointmentsByPatientId(@RequestParam(value = "token", required = false) String token, @RequestParam("patientId") int patientId) {
+        return appointmentService.streamAppointmentsByPatientId(token, patientId);
+    }
+    //Get the doctor's next free slots, starting now unless "from" is given
+    @GetMapping("/nextFreeSlots")
+    public ResponseEntity<Object> getNextFreeSlots(@RequestParam(value = "token", required = false) String token,
+                                                   @RequestParam("doctorId") int doctorId,
+                                                   @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                   @RequestParam(value = "count", defaultValue = "5") int count) {
+        return appointmentService.getNextFreeSlots(token, doctorId, from, count);
+    }
+    //Earliest free slots across all doctors, e.g. tomorrow morning: fromDate=<tomorrow>&fromTime=08:00&toTime=12:00
+    @GetMapping("/availability")
+    public ResponseEntity<Object> getAvailability(@RequestParam(value = "token", required = false) String token,
+                                                  @RequestParam(value = "fromDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                                  @RequestParam(value = "days", defaultValue = "1") int days,
+                                                  @RequestParam(value = "fromTime", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime fromTime,
+                                                  @RequestParam(value = "toTime", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime toTime,
+                                                  @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return appointmentService.getAvailability(token, fromDate, days, fromTime, toTime, limit);
+    }
+    // Recurring series: stored once, occurrences are expanded when a date range is read
+    @PostMapping("/createSeries")
+    public ResponseEntity<Object> createSeries(@RequestParam(value = "token", required = false) String token, @RequestBody AppointmentSeries series) {
+        return appointmentService.createSeries(token, series);
+    }
+
+    @GetMapping("/getSeries")
+    public ResponseEntity<Object> getSeries(@RequestParam(value = "token", required = false) String token, @RequestParam("seriesId") int seriesId) {
+        return appointmentService.getSeries(token, seriesId);
+    }
+
+    @PostMapping("/deleteSeries")
+    public ResponseEntity<Object> deleteSeries(@RequestParam(value = "token", required = false) String token, @RequestParam("seriesId") int seriesId) {
+        return appointmentService.deleteSeries(token, seriesId);
+    }
+
+    // Cancel or move a single occurrence; body needs seriesId and occurrenceDate, other fields are the changes
+    @PostMapping("/editOccurrence")
+    public ResponseEntity<Object> editOccurrence(@RequestParam(value = "token", required = false) String token, @RequestBody Appointment occurrence) {
+        return appointmentService.editOccurrence(token, occurrence);
+    }
+    //A doctor's assembled schedule for one day (default today), served from the day-sheet cache
+    @GetMapping("/getDaySheet")
+    public ResponseEntity<Object> getDaySheet(@RequestParam(value = "token", required = false) String token,
+                                              @RequestParam("doctorId") int doctorId,
+                                              @RequestParam(value = "date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return appointmentService.getDaySheet(token, doctorId, date);
+    }
     //Get appointments by date
     @GetMapping("/getAppointmentsByDate")
-    public ResponseEntity<Object> getAppointmentsByDate(@RequestParam("token") String token, @RequestParam("date") String date) {
+    public ResponseEntity<Object> getAppointmentsByDate(@RequestParam(value = "token", required = false) String token,
+                                                        @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
         return appointmentService.getAppointmentsByDate(date);
     }
 
+    //Get a doctor's appointments between two dates (inclusive), for calendar views
+    @GetMapping("/getDoctorAppointments")
+    public ResponseEntity<Object> getDoctorAppointments(@RequestParam(value = "token", required = false) String token,
+                                                        @RequestParam("doctorId") int doctorId,
+                                                        @RequestParam("fromDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                                        @RequestParam("toDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+        return appointmentService.getDoctorAppointments(token, doctorId, fromDate, toDate);
+    }
+
 }
\ No newline at end of file
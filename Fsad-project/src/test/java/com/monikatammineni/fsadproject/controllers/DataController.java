@@ -21,41 +21,58 @@ public class DataController {
     private LoginService loginService;
 
     @GetMapping("/getAllPatients")
-    public ResponseEntity<Object> getAllPatients(@RequestParam("token") String token) {
-        return ResponseEntity.ok(dataService.getAllPatients(token));
+    public ResponseEntity<Object> getAllPatients(@RequestParam(value = "token", required = false) String token,
+                                                 @RequestParam(value = "page", defaultValue = "0") int page,
+                                                 @RequestParam(value = "size", defaultValue = "200") int size,
+                                                 @RequestParam(value = "q", required = false) String query,
+                                                 @RequestParam(value = "field", required = false) String field,
+                                                 @RequestParam(value = "sort", required = false) String sort,
+                                                 @RequestParam(value = "dir", required = false) String direction) {
+        return ResponseEntity.ok(dataService.getAllPatients(token, page, size, query, field, sort, direction));
     }
 
     @PostMapping("/editUser")
-    public ResponseEntity<Object> editUser(@RequestParam("token") String token, @RequestBody User user) {
+    public ResponseEntity<Object> editUser(@RequestParam(value = "token", required = false) String token, @RequestBody User user) {
         return ResponseEntity.ok(loginService.editUser(token, user));
     }
 
     @GetMapping("/getPatientFileDetails")
-    public ResponseEntity<Object> getPatientFileDetails(@RequestParam("token") String token, @RequestParam("patient_user_id") int patientUserId) {
+    public ResponseEntity<Object> getPatientFileDetails(@RequestParam(value = "token", required = false) String token, @RequestParam("patient_user_id") int patientUserId) {
         return ResponseEntity.ok(dataService.getPatientFileDetails(token, patientUserId));
     }
     @GetMapping("/getPatientFiles")
-    public ResponseEntity<Object> getPatientFiles(@RequestParam("token") String token) {
+    public ResponseEntity<Object> getPatientFiles(@RequestParam(value = "token", required = false) String token) {
         return ResponseEntity.ok(dataService.getPatientFiles(token));
     }
 
     @PostMapping("/getUser")
-    public ResponseEntity<Object> getUser(@RequestParam("token") String token) {
+    public ResponseEntity<Object> getUser(@RequestParam(value = "token", required = false) String token) {
         return ResponseEntity.ok(dataService.getUser(token));
     }
 
+    @GetMapping("/getUserDetails")
+    public ResponseEntity<Object> getUserDetails(@RequestParam(value = "token", required = false) String token, @RequestParam("user_id") int userId) {
+        return ResponseEntity.ok(dataService.getUserDetails(token, userId));
+    }
+
     @GetMapping("/getAllUsers")
-    public ResponseEntity<Object> getAllUsers(@RequestParam("token") String token) {
-        return ResponseEntity.ok(dataService.getAllUsers(token));
+    public ResponseEntity<Object> getAllUsers(@RequestParam(value = "token", required = false) String token,
+                                              @RequestParam(value = "page", defaultValue = "0") int page,
+                                              @RequestParam(value = "size", defaultValue = "200") int size,
+                                              @RequestParam(value = "q", required = false) String query,
+                                              @RequestParam(value = "field", required = false) String field,
+                                              @RequestParam(value = "sort", required = false) String sort,
+                                              @RequestParam(value = "dir", required = false) String direction) {
+        return ResponseEntity.ok(dataService.getAllUsers(token, page, size, query, field, sort, direction));
     }
 
     @PostMapping("/deleteUser")
-    public ResponseEntity<Object> deleteUser(@RequestParam("token") String token, @RequestParam("user_id") int userId) {
+    public ResponseEntity<Object> deleteUser(@RequestParam(value = "token", required = false) String token, @RequestParam("user_id") int userId) {
         return ResponseEntity.ok(dataService.deleteUser(token, userId));
     }
 
     @PostMapping("/getAllDoctorsList")
-    public ResponseEntity<Object> getAllDoctorsList(@RequestParam("token") String token) {
+    public ResponseEntity<Object> getAllDoctorsList(@RequestParam(value = "token", required = false) String token) {
         return ResponseEntity.ok(dataService.getAllDoctorsList(token));
     }
 }
@@ -1,48 +1,97 @@
-package com.monikatammineni.fsadproject.controllers;
-
-import com.monikatammineni.fsadproject.entity.*;
-import com.monikatammineni.fsadproject.service.LoginService;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.*;
-
-@RestController
-@RequestMapping("/auth")
-@CrossOrigin(origins = "*")
-public class LoginController  {
-
-    @Autowired
-    private LoginService loginService;
-
-    @PostMapping("/login")
-    public ResponseEntity<Object> login(@RequestBody LoginRequest loginRequest)
-    {
-        return ResponseEntity.ok(loginService.login(loginRequest));
-    }
-
-    @PostMapping("/register")
-    public ResponseEntity<Object> register(@RequestBody RegisterRequest registerRequest) {
-        return ResponseEntity.ok(loginService.register(registerRequest));
-    }
-
-
-    @GetMapping("isValidToken")
-    public ResponseEntity<Object> isValidToken(@RequestParam("token") String token) {
-        return ResponseEntity.ok(loginService.isValidToken(token));
-    }
-
-    @PostMapping("/changePassword")
-    public ResponseEntity<Object> changePassword(
-            @RequestParam("token") String token,
-            @RequestBody PasswordChangeRequest request) {
-        return ResponseEntity.ok(loginService.changePassword(token, request.oldPassword, request.newPassword));
-    }
-
-
-}
-
-
-
-
-
-
+package com.monikatammineni.fsadproject.controllers;
+
+import com.monikatammineni.fsadproject.entity.*;
+import com.monikatammineni.fsadproject.ratelimit.AuthRateLimits;
+import com.monikatammineni.fsadproject.service.LoginService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/auth")
+@CrossOrigin(origins = "*")
+public class LoginController  {
+
+    @Autowired
+    private LoginService loginService;
+
+    @Autowired
+    private AuthRateLimits authRateLimits;
+
+    @PostMapping("/login")
+    public CompletableFuture<ResponseEntity<Object>> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request)
+    {
+        long retryAfterMillis = authRateLimits.checkLogin(request.getRemoteAddr(), loginRequest.getEmail());
+        if (retryAfterMillis > 0) {
+            return CompletableFuture.completedFuture(tooManyRequests(retryAfterMillis));
+        }
+        return loginService.login(loginRequest)
+                .<ResponseEntity<Object>>thenApply(ResponseEntity::ok)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof RejectedExecutionException) {
+                        // BCrypt pool is saturated, shed load instead of queueing behind it
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, "1")
+                                .body("Too many logins in progress, please retry.");
+                    }
+                    throw e instanceof CompletionException ce ? ce : new CompletionException(e);
+                });
+    }
+
+    // Taken from a header so the long-lived token never appears in request URLs or access logs
+    @PostMapping("/refreshToken")
+    public ResponseEntity<Object> refreshToken(@RequestHeader("X-Refresh-Token") String refreshToken) {
+        return ResponseEntity.ok(loginService.refreshToken(refreshToken));
+    }
+
+    @PostMapping("/register")
+    public ResponseEntity<Object> register(@RequestBody RegisterRequest registerRequest, HttpServletRequest request) {
+        long retryAfterMillis = authRateLimits.checkRegister(request.getRemoteAddr());
+        if (retryAfterMillis > 0) {
+            return tooManyRequests(retryAfterMillis);
+        }
+        try {
+            return ResponseEntity.ok(loginService.register(registerRequest));
+        } catch (RejectedExecutionException e) {
+            // BCrypt pool is saturated, shed load instead of queueing behind it
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Too many registrations in progress, please retry.");
+        }
+    }
+
+    private ResponseEntity<Object> tooManyRequests(long retryAfterMillis) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterMillis + 999) / 1000))
+                .body("Too many attempts, please retry later.");
+    }
+
+
+    @GetMapping("isValidToken")
+    public ResponseEntity<Object> isValidToken(@RequestParam(value = "token", required = false) String token) {
+        return ResponseEntity.ok(loginService.isValidToken(token));
+    }
+
+    @PostMapping("/changePassword")
+    public ResponseEntity<Object> changePassword(
+            @RequestParam(value = "token", required = false) String token,
+            @RequestBody PasswordChangeRequest request) {
+        return ResponseEntity.ok(loginService.changePassword(token, request.oldPassword, request.newPassword));
+    }
+
+
+}
+
+
+
+
+
+
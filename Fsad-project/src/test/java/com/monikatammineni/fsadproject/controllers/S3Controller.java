@@ -3,9 +3,11 @@ package com.monikatammineni.fsadproject.controllers;
 import com.monikatammineni.fsadproject.entity.Files;
 import com.monikatammineni.fsadproject.service.S3Service;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 //import java.io.File;
 import java.io.IOException;
@@ -25,7 +27,7 @@ public class S3Controller {
     @PostMapping(value = "/upload", consumes = "multipart/form-data")
     public String uploadFile(@RequestParam("file") MultipartFile file, @RequestParam("category") String category,
                              @RequestParam("patient_user_id") int patientUserId,
-                             @RequestParam("token") String token) throws IOException
+                             @RequestParam(value = "token", required = false) String token) throws IOException
     {
         log.info("Token Received: "+ token);
         return s3Service.uploadFile(file, category, patientUserId, token);
@@ -33,38 +35,40 @@ public class S3Controller {
 
     // Download a file from S3
     @GetMapping("/downloadFile")
-    public ResponseEntity<?> downloadFile(@RequestParam int fileId,
-                                          @RequestParam("token") String token) {
-        return s3Service.downloadFile(fileId, token);
+    public ResponseEntity<StreamingResponseBody> downloadFile(@RequestParam int fileId,
+                                                              @RequestParam(value = "token", required = false) String token,
+                                                              @RequestHeader HttpHeaders requestHeaders) {
+        return s3Service.downloadFile(fileId, token, requestHeaders);
     }
 
     @GetMapping("/viewFile")
-    public ResponseEntity<?> viewFile(
+    public ResponseEntity<StreamingResponseBody> viewFile(
             @RequestParam int fileId,
-            @RequestParam("token") String token,
-            @RequestParam(value = "mode", defaultValue = "inline") String mode) {
+            @RequestParam(value = "token", required = false) String token,
+            @RequestParam(value = "mode", defaultValue = "inline") String mode,
+            @RequestHeader HttpHeaders requestHeaders) {
 
-        ResponseEntity<?> response = s3Service.viewFile(fileId, token, mode);
+        ResponseEntity<StreamingResponseBody> response = s3Service.viewFile(fileId, token, mode, requestHeaders);
 
-        // If the response is already ResponseEntity<byte[]> or similar
-        if (response.getBody() instanceof byte[] responseBytes) {
+        // If the response carries the file (full or partial, not an error message)
+        if (response.getStatusCode().is2xxSuccessful()) {
             return ResponseEntity.status(response.getStatusCode())
                     .headers(response.getHeaders())
                     .header("X-Frame-Options", "SAMEORIGIN") // or "ALLOWALL"
-                    .body(responseBytes);
+                    .body(response.getBody());
         }
 
         return response;
     }
     @DeleteMapping("/deleteFile")
     public ResponseEntity<?> deleteFile(@RequestParam int fileId,
-                                        @RequestParam("token") String token) {
+                                        @RequestParam(value = "token", required = false) String token) {
         return s3Service.deleteFile(fileId, token);
     }
 
     @PostMapping("/updateFile")
     public ResponseEntity<?> updateFileDetails(@RequestParam int fileId,
-                                               @RequestParam("token") String token,
+                                               @RequestParam(value = "token", required = false) String token,
                                                @RequestBody Files file) throws IOException {
         return s3Service.updateFileDetails(fileId, token, file);
     }
@@ -0,0 +1,87 @@
+package com.monikatammineni.fsadproject.controllers;
+
+import com.monikatammineni.fsadproject.service.MultipartUploadService;
+import com.monikatammineni.fsadproject.service.PresignedUrlService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+// Transfers that rely on S3 itself (multipart uploads, presigned URLs); not available with the local storage backend
+@RestController
+@RequestMapping("/s3")
+@CrossOrigin(origins = "*")
+@ConditionalOnProperty(name = "storage.backend", havingValue = "s3", matchIfMissing = true)
+public class S3TransferController {
+
+    @Autowired
+    private MultipartUploadService multipartUploadService;
+
+    @Autowired
+    private PresignedUrlService presignedUrlService;
+
+    // Chunked, resumable upload: initiate, send each part as the raw request body, then complete
+    @PostMapping("/multipart/initiate")
+    public ResponseEntity<?> initiateUpload(@RequestParam("fileName") String fileName,
+                                            @RequestParam("category") String category,
+                                            @RequestParam("patient_user_id") int patientUserId,
+                                            @RequestParam("fileSize") long fileSize,
+                                            @RequestParam(value = "contentType", required = false) String contentType,
+                                            @RequestParam(value = "token", required = false) String token) {
+        return multipartUploadService.initiate(fileName, category, patientUserId, fileSize, contentType, token);
+    }
+
+    @PutMapping("/multipart/part")
+    public ResponseEntity<?> uploadPart(@RequestParam("uploadId") String uploadId,
+                                        @RequestParam("partNumber") int partNumber,
+                                        @RequestParam(value = "token", required = false) String token,
+                                        HttpServletRequest request) throws IOException {
+        return multipartUploadService.uploadPart(uploadId, partNumber, request.getInputStream(),
+                request.getContentLengthLong(), token);
+    }
+
+    @GetMapping("/multipart/status")
+    public ResponseEntity<?> uploadStatus(@RequestParam("uploadId") String uploadId,
+                                          @RequestParam(value = "token", required = false) String token) {
+        return multipartUploadService.getStatus(uploadId, token);
+    }
+
+    @PostMapping("/multipart/complete")
+    public ResponseEntity<?> completeUpload(@RequestParam("uploadId") String uploadId,
+                                            @RequestParam(value = "token", required = false) String token) {
+        return multipartUploadService.complete(uploadId, token);
+    }
+
+    @DeleteMapping("/multipart/abort")
+    public ResponseEntity<?> abortUpload(@RequestParam("uploadId") String uploadId,
+                                         @RequestParam(value = "token", required = false) String token) {
+        return multipartUploadService.abort(uploadId, token);
+    }
+
+    // Direct-to-S3 transfers: the client PUTs/GETs the returned URL itself, then confirms uploads
+    @PostMapping("/presigned/upload")
+    public ResponseEntity<?> presignUpload(@RequestParam("fileName") String fileName,
+                                           @RequestParam("category") String category,
+                                           @RequestParam("patient_user_id") int patientUserId,
+                                           @RequestParam("fileSize") long fileSize,
+                                           @RequestParam(value = "contentType", required = false) String contentType,
+                                           @RequestParam(value = "token", required = false) String token) {
+        return presignedUrlService.presignUpload(fileName, category, patientUserId, fileSize, contentType, token);
+    }
+
+    @PostMapping("/presigned/confirm")
+    public ResponseEntity<?> confirmUpload(@RequestParam("uploadId") String uploadId,
+                                           @RequestParam(value = "token", required = false) String token) {
+        return presignedUrlService.confirmUpload(uploadId, token);
+    }
+
+    @GetMapping("/presigned/download")
+    public ResponseEntity<?> presignDownload(@RequestParam int fileId,
+                                             @RequestParam(value = "token", required = false) String token,
+                                             @RequestParam(value = "mode", defaultValue = "attachment") String mode) {
+        return presignedUrlService.presignDownload(fileId, token, mode);
+    }
+}
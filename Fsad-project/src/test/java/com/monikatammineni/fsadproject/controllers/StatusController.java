@@ -1,5 +1,8 @@
 package com.monikatammineni.fsadproject.controllers;
 
+import com.monikatammineni.fsadproject.cache.CacheRegistry;
+import com.monikatammineni.fsadproject.ratelimit.RateLimiterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -8,6 +11,13 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 @CrossOrigin(origins = "*")
 public class StatusController {
+
+    @Autowired
+    private CacheRegistry cacheRegistry;
+
+    @Autowired
+    private RateLimiterRegistry rateLimiterRegistry;
+
     // This controller can be used to check the status of the application
     // You can add endpoints here to return application health or status information
 
@@ -24,4 +34,16 @@ public class StatusController {
         return ResponseEntity.ok().body(statusResponse);
     }
 
+    // Size, hit/miss and eviction counters of every in-memory cache
+    @GetMapping("/status/caches")
+    public ResponseEntity<Object> getCacheStats() {
+        return ResponseEntity.ok().body(cacheRegistry.stats());
+    }
+
+    // Admitted/rejected counters and tracked key counts of every rate limiter
+    @GetMapping("/status/rateLimits")
+    public ResponseEntity<Object> getRateLimitStats() {
+        return ResponseEntity.ok().body(rateLimiterRegistry.stats());
+    }
+
 }
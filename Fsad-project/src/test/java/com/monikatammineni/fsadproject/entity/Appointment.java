@@ -3,25 +3,42 @@ package com.monikatammineni.fsadproject.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 @ToString
 @Entity
-@Table(name = "appointment")
+@Table(name = "appointment", indexes = {
+        @Index(name = "idx_appointment_doctor_start", columnList = "doctor_id, appointment_date, appointment_time"),
+        @Index(name = "idx_appointment_patient_start", columnList = "patient_id, appointment_date, appointment_time"),
+        @Index(name = "idx_appointment_series_occurrence", columnList = "series_id, occurrence_date")
+})
 public class Appointment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence (a table on MySQL) instead of IDENTITY so Hibernate can batch inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointment_seq")
+    @SequenceGenerator(name = "appointment_seq", sequenceName = "appointment_seq", allocationSize = 50)
     private Integer appointmentId;
+    @Column(name = "patient_id")
     private int patientId;
-    private String appointmentDate;
-    private String appointmentTime;
+    @Column(name = "appointment_date")
+    private LocalDate appointmentDate; // yyyy-MM-dd
+    @Column(name = "appointment_time")
+    private LocalTime appointmentTime; // HH:mm
     @Enumerated(EnumType.STRING)
     private statusType status; // e.g., "scheduled", "completed", "cancelled"
     private String notes; // Additional notes or comments about the appointment
     private int createdByUserId; // ID of the user who created the appointment
+    @Column(name = "doctor_id")
     private int doctorId; // ID of the doctor associated with the appointment
+    @Column(name = "series_id")
+    private Integer seriesId; // set when this row is a cancelled/moved occurrence of an AppointmentSeries
+    @Column(name = "occurrence_date")
+    private LocalDate occurrenceDate; // the series occurrence this row replaces
 
     public enum statusType {
         SCHEDULED, CHECKED_IN, CANCELLED, COMPLETED, NO_SHOW,LAB_TESTS
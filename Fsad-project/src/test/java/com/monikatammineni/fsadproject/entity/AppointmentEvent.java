@@ -0,0 +1,27 @@
+package com.monikatammineni.fsadproject.entity;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class AppointmentEvent {
+    private Type type;
+    private Integer appointmentId;
+    private int patientId;
+    private int doctorId;
+    private Integer previousDoctorId; // set when an update moved the appointment to another doctor
+    private Appointment.statusType status;
+    private Appointment.statusType previousStatus; // set on updates, so clients can spot CHECKED_IN, NO_SHOW, ...
+    private LocalDate appointmentDate;
+    private LocalTime appointmentTime;
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
@@ -0,0 +1,17 @@
+package com.monikatammineni.fsadproject.entity;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class AppointmentOperation {
+    private Type type;
+    private Appointment appointment; // full appointment for CREATE/UPDATE, only appointmentId is needed for CANCEL
+
+    public enum Type {
+        CREATE, UPDATE, CANCEL
+    }
+}
@@ -0,0 +1,15 @@
+package com.monikatammineni.fsadproject.entity;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class AppointmentOperationResult {
+    private int index; // position of the operation in the request
+    private Integer appointmentId;
+    private boolean success;
+    private String message;
+}
@@ -0,0 +1,16 @@
+package com.monikatammineni.fsadproject.entity;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class AppointmentPageResponse {
+    private List<AppointmentResponse> appointments;
+    private Integer nextCursor; // appointmentId to pass as cursor for the next page, null on the last page
+    private List<AppointmentResponse> recurringOccurrences; // unstored series occurrences in fromDate..toDate, first page only
+}
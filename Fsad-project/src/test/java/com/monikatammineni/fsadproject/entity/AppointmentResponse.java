@@ -4,6 +4,9 @@ import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import lombok.*;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+
 @Getter
 @Setter
 @NoArgsConstructor
@@ -14,8 +17,8 @@ public class AppointmentResponse {
     private int patientId;
     private String patientFirstName;
     private String patientLastName;
-    private String appointmentDate;
-    private String appointmentTime;
+    private LocalDate appointmentDate;
+    private LocalTime appointmentTime;
     @Enumerated(EnumType.STRING)
     private Appointment.statusType status; // e.g., "scheduled", "completed", "cancelled"
     private String notes; // Additional notes or comments about the appointment
@@ -25,4 +28,6 @@ public class AppointmentResponse {
     private int doctorId; // ID of the doctor associated with the appointment
     private String doctorFirstName;
     private String doctorLastName;
+    private Integer seriesId; // set for recurring occurrences; appointmentId is null until an occurrence is changed
+    private LocalDate occurrenceDate;
 }
\ No newline at end of file
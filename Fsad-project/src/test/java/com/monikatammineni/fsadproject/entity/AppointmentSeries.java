@@ -0,0 +1,45 @@
+package com.monikatammineni.fsadproject.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * A recurring appointment stored once. Occurrences are expanded on demand; only cancelled or moved occurrences
+ * are stored, as {@link Appointment} rows carrying this series' id and the occurrence date they replace.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+@Entity
+@Table(name = "appointment_series", indexes = {
+        @Index(name = "idx_series_doctor_start", columnList = "doctor_id, start_date"),
+        @Index(name = "idx_series_patient_start", columnList = "patient_id, start_date")
+})
+public class AppointmentSeries {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer seriesId;
+    @Column(name = "patient_id")
+    private int patientId;
+    @Column(name = "doctor_id")
+    private int doctorId;
+    private int createdByUserId;
+    @Column(name = "start_date")
+    private LocalDate startDate; // date of the first occurrence
+    private LocalTime appointmentTime;
+    @Enumerated(EnumType.STRING)
+    private Frequency frequency;
+    private int repeatEvery = 1; // every N days/weeks/months
+    private Integer occurrences; // total number of occurrences, null for no limit
+    private LocalDate untilDate; // last possible occurrence date (inclusive), null for no end
+    private String notes;
+
+    public enum Frequency {
+        DAILY, WEEKLY, MONTHLY
+    }
+}
@@ -0,0 +1,19 @@
+package com.monikatammineni.fsadproject.entity;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class AvailableSlot {
+    private int doctorId;
+    private String doctorFirstName;
+    private String doctorLastName;
+    private LocalDate appointmentDate;
+    private LocalTime appointmentTime;
+}
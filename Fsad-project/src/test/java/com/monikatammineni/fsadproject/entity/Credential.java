@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "credentials")
+@Table(name = "credentials", indexes = {
+        @Index(name = "uk_credentials_email", columnList = "email", unique = true),
+        @Index(name = "idx_credentials_user_id", columnList = "user_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,6 @@
+package com.monikatammineni.fsadproject.entity;
+
+// Everything login needs from credentials and user, fetched in one joined query
+public record LoginAccount(int userId, String passwordHash, boolean status, String firstName, String lastName,
+                           String accountType, String mobileNumber) {
+}
@@ -9,6 +9,7 @@ import lombok.Setter;
 public class LoginResponse {
     boolean isValidated;
     String token;
+    String refreshToken;
     String firstName;
     String lastName;
     String accountType;
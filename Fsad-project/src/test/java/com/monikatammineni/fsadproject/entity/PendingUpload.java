@@ -0,0 +1,52 @@
+package com.monikatammineni.fsadproject.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// An S3 multipart upload, or a presigned direct PUT (direct = true), that has been started but not confirmed;
+// becomes a Files row on completion
+@Entity
+@Table(name = "pending_uploads", indexes = @Index(name = "idx_pending_uploads_created", columnList = "created_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class PendingUpload {
+
+    @Id
+    @Column(name = "upload_id", length = 255)
+    private String uploadId;
+
+    @Column(name = "file_code")
+    private String fileCode;
+
+    @Column(name = "user_id")
+    private int userId;
+
+    @Column(name = "category")
+    private String category;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "total_size")
+    private long totalSize;
+
+    @Column(name = "part_size")
+    private long partSize;
+
+    @Column(name = "uploaded_by_user_id")
+    private int uploadedByUserId;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    @Column(name = "direct", nullable = false, columnDefinition = "bit default 0")
+    private boolean direct;
+}
@@ -0,0 +1,7 @@
+package com.monikatammineni.fsadproject.entity;
+
+import java.time.Instant;
+
+// uploadId is set for upload URLs and is what the client passes back to confirm the upload
+public record PresignedUrlResponse(String uploadId, String fileCode, String url, Instant expiresAt) {
+}
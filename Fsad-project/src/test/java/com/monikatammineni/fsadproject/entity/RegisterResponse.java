@@ -16,4 +16,6 @@ public class RegisterResponse {
 
     private String token;
 
+    private String refreshToken;
+
 }
@@ -0,0 +1,27 @@
+package com.monikatammineni.fsadproject.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// Tokens of this user issued at or before revokedAt are rejected until expiresAt, when the last of them lapses
+@Entity
+@Table(name = "token_revocations", indexes = @Index(name = "idx_token_revocations_expires", columnList = "expires_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class TokenRevocation {
+
+    @Id
+    @Column(name = "user_id")
+    private int userId;
+
+    @Column(name = "revoked_at")
+    private Instant revokedAt;
+
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+}
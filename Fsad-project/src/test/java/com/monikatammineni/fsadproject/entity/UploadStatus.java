@@ -0,0 +1,8 @@
+package com.monikatammineni.fsadproject.entity;
+
+import java.util.List;
+
+// Progress of a chunked upload; a client resuming after a dropped connection re-sends the parts not listed
+public record UploadStatus(String uploadId, String fileCode, long totalSize, long partSize, int partCount,
+                           List<Integer> uploadedParts, long uploadedBytes) {
+}
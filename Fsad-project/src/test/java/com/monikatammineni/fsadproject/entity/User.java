@@ -7,7 +7,7 @@ import java.util.Date;
 
 
 @Entity
-@Table(name = "user")
+@Table(name = "user", indexes = @Index(name = "uk_user_email", columnList = "email", unique = true))
 @Getter
 @Setter
 @NoArgsConstructor
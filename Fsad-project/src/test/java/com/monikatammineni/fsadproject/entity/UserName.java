@@ -0,0 +1,12 @@
+package com.monikatammineni.fsadproject.entity;
+
+/**
+ * Projection of a user down to the columns needed to label appointments.
+ */
+public interface UserName {
+    int getId();
+
+    String getFirstName();
+
+    String getLastName();
+}
@@ -0,0 +1,16 @@
+package com.monikatammineni.fsadproject.entity;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class UserPageResponse {
+    private List<UserSummary> users;
+    private int page;
+    private boolean hasNext; // false on the last page, so the client knows when to stop asking
+}
@@ -0,0 +1,28 @@
+package com.monikatammineni.fsadproject.entity;
+
+import java.util.Date;
+
+/**
+ * Read-only projection of a user for the admin and patient listings, limited to the columns a list row shows or is
+ * searched by. Address and the rest are fetched per user when a row is opened for editing. Unlike a loaded {@link User}
+ * it is not a managed entity, so nothing done to it can be flushed back.
+ */
+public interface UserSummary {
+    int getId();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getEmail();
+
+    String getGender();
+
+    String getMobileNumber();
+
+    Date getDateOfBirth();
+
+    String getAccountType();
+
+    boolean isStatus();
+}
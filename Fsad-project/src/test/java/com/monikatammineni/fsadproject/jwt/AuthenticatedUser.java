@@ -0,0 +1,16 @@
+package com.monikatammineni.fsadproject.jwt;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * The caller behind a verified token, as placed in the SecurityContext by {@link TokenAuthenticationFilter}.
+ */
+public record AuthenticatedUser(int id, String accountType, String mobileNumber) {
+
+    static AuthenticatedUser from(Claims claims) {
+        return new AuthenticatedUser(
+                claims.get("id", Integer.class),
+                claims.get("account_type", String.class),
+                claims.get("mobileNumber", String.class));
+    }
+}
@@ -0,0 +1,77 @@
+package com.monikatammineni.fsadproject.jwt;
+
+import io.jsonwebtoken.JweHeader;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.security.Key;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * HMAC signing keys loaded from configuration, so tokens survive restarts and are accepted by every node.
+ * <p>
+ * {@code jwt.keys} lists {@code kid:base64Secret} pairs separated by commas and {@code jwt.active-kid} names the one
+ * new tokens are signed with (defaults to the first). Tokens carry their kid in the header and are verified with
+ * the matching key, so a key can be rotated by adding a new one, making it active, and removing the old one once
+ * its tokens have expired. Without configured keys a random key is generated, which only suits local development.
+ */
+@Component
+public class JwtKeyRing extends LocatorAdapter<Key> {
+
+    private final Map<String, SecretKey> keys = new LinkedHashMap<>();
+    private final String activeKeyId;
+
+    //logger
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(JwtKeyRing.class);
+
+    public JwtKeyRing(@Value("${jwt.keys:}") String configuredKeys, @Value("${jwt.active-kid:}") String activeKid) {
+        for (String entry : configuredKeys.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("jwt.keys entries must look like kid:base64Secret");
+            }
+            keys.put(entry.substring(0, separator).trim(),
+                    Keys.hmacShaKeyFor(Decoders.BASE64.decode(entry.substring(separator + 1).trim())));
+        }
+        if (keys.isEmpty()) {
+            log.warn("No jwt.keys configured, generating a random signing key; tokens will not survive a restart");
+            SecretKey generated = Jwts.SIG.HS256.key().build();
+            keys.put("dev-" + Base64.getUrlEncoder().withoutPadding().encodeToString(generated.getEncoded()).substring(0, 8), generated);
+        }
+        this.activeKeyId = activeKid.isBlank() ? keys.keySet().iterator().next() : activeKid;
+        if (!keys.containsKey(activeKeyId)) {
+            throw new IllegalArgumentException("jwt.active-kid " + activeKeyId + " is not in jwt.keys");
+        }
+    }
+
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    public SecretKey getActiveKey() {
+        return keys.get(activeKeyId);
+    }
+
+    // Unknown kids resolve to null and the parser rejects the token
+    @Override
+    protected Key locate(JwsHeader header) {
+        String keyId = header.getKeyId();
+        return keyId == null ? null : keys.get(keyId);
+    }
+
+    @Override
+    protected Key locate(JweHeader header) {
+        return null; // encrypted tokens are not issued
+    }
+}
@@ -0,0 +1,64 @@
+package com.monikatammineni.fsadproject.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Verifies the request's token once and exposes the caller as an {@link AuthenticatedUser} principal with a
+ * ROLE_&lt;account_type&gt; authority. The token is read from an "Authorization: Bearer" header, falling back to
+ * the "token" query parameter the frontend still sends. Requests without a valid token stay anonymous and the
+ * endpoints answer them as before.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenHelper tokenHelper;
+
+    public TokenAuthenticationFilter(TokenHelper tokenHelper) {
+        this.tokenHelper = tokenHelper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String token = resolveToken(request);
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            try {
+                Claims claims = tokenHelper.getClaims(token);
+                if (claims != null) {
+                    AuthenticatedUser user = AuthenticatedUser.from(claims);
+                    List<SimpleGrantedAuthority> authorities = user.accountType() == null
+                            ? List.of()
+                            : List.of(new SimpleGrantedAuthority("ROLE_" + user.accountType().toUpperCase()));
+                    SecurityContextHolder.getContext().setAuthentication(
+                            new UsernamePasswordAuthenticationToken(user, token, authorities));
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                // expired or malformed, leave the request anonymous
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private String resolveToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            return header.substring(BEARER_PREFIX.length()).trim();
+        }
+        String token = request.getParameter("token");
+        return token == null || token.isBlank() ? null : token;
+    }
+}
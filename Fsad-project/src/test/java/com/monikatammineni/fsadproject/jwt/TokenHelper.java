@@ -1,73 +1,165 @@
 package com.monikatammineni.fsadproject.jwt;
 
 
+import com.monikatammineni.fsadproject.cache.CacheRegistry;
+import com.monikatammineni.fsadproject.cache.LruCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.SignatureException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class TokenHelper {
-    static Key secretKey = io.jsonwebtoken.security.Keys.secretKeyFor(SignatureAlgorithm.HS256);
+
+    private static final String TOKEN_TYPE_CLAIM = "typ";
+    private static final String REFRESH_TOKEN_TYPE = "refresh";
+
+    private final JwtKeyRing keyRing;
+
+    // Parsers are immutable and thread-safe, so one instance serves every request
+    private final JwtParser parser;
+
+    // Claims of tokens that already passed signature verification, keyed by SHA-256 of the token and
+    // dropped at the token's own expiry, so repeat calls within a session skip HMAC verification and JSON parsing
+    private final LruCache<String, Claims> verifiedClaims;
+    private final TokenRevocationList revocationList;
+
+    private final long accessTokenLifetimeMillis;
+    private final long refreshTokenLifetimeMillis;
+
+    //logger
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(TokenHelper.class);
 
     @Value("${jwt.issuer}")
     private String issuer;
 
+    public TokenHelper(JwtKeyRing keyRing, CacheRegistry cacheRegistry, TokenRevocationList revocationList,
+                       @Value("${jwt.access-token-minutes:15}") long accessTokenMinutes,
+                       @Value("${jwt.refresh-token-days:7}") long refreshTokenDays) {
+        this.keyRing = keyRing;
+        this.parser = Jwts.parser().keyLocator(keyRing).build();
+        this.verifiedClaims = cacheRegistry.create("verifiedClaims", 10_000);
+        this.revocationList = revocationList;
+        this.accessTokenLifetimeMillis = TimeUnit.MINUTES.toMillis(accessTokenMinutes);
+        this.refreshTokenLifetimeMillis = TimeUnit.DAYS.toMillis(refreshTokenDays);
+    }
 
     public String createToken(int id, String mobileNumber, String account_type) {
         HashMap<String, Object> payload = new HashMap<>();
         payload.put("id", id);
         payload.put("mobileNumber", mobileNumber);
         payload.put("account_type", account_type);
-        Date now = new Date();
-//        Date expiration = new Date(now.getTime() +
-//                1800000); // 30 mins
-        //make it 24 hours
-        Date expiration = new Date(now.getTime() + 86400000); // 24 hours
+        return sign(payload, accessTokenLifetimeMillis);
+    }
+
+    // Long-lived token that can only be exchanged for new access tokens, see getRefreshClaims
+    public String createRefreshToken(int id) {
+        HashMap<String, Object> payload = new HashMap<>();
+        payload.put("id", id);
+        payload.put(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE);
+        return sign(payload, refreshTokenLifetimeMillis);
+    }
 
+    private String sign(Map<String, Object> payload, long lifetimeMillis) {
+        Date now = new Date();
+        Date expiration = new Date(now.getTime() + lifetimeMillis);
 
         String token = Jwts.builder()
-                .setClaims(payload)
+                .header().keyId(keyRing.getActiveKeyId()).and()
+                .claims(payload)
                 .issuer(issuer)
                 .issuedAt(now)
                 .expiration(expiration)
-                .signWith(secretKey)
+                .signWith(keyRing.getActiveKey())
                 .compact();
         return token;
     }
 
     public boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                    .setSigningKey(secretKey)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (SignatureException e) {
-            System.out.println("Invalid token");
-            return false;
+        return getClaims(token) != null;
+    }
+
+    /**
+     * The caller of the current request. Uses the principal {@link TokenAuthenticationFilter} already verified
+     * when it came from this token (or when no token is passed); otherwise verifies the token here.
+     * Returns null when the caller is not authenticated.
+     */
+    public AuthenticatedUser authenticate(String token) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+                && (token == null || token.equals(authentication.getCredentials()))) {
+            return user;
+        }
+        if (token == null) {
+            return null;
+        }
+        Claims claims = getClaims(token);
+        return claims == null ? null : AuthenticatedUser.from(claims);
+    }
+
+    public Claims getClaims(String token) {
+        String key = tokenHash(token);
+        Claims claims = verifiedClaims.get(key);
+        if (claims == null) {
+            claims = verify(token);
+            if (claims == null || REFRESH_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM, String.class))) {
+                return null;
+            }
+            Date expiration = claims.getExpiration();
+            verifiedClaims.put(key, claims, expiration == null ? Long.MAX_VALUE : expiration.getTime());
+        }
+        // Checked on cache hits too, a revocation applies to tokens verified before it
+        return isRevoked(claims) ? null : claims;
+    }
+
+    // Claims of a valid, unrevoked refresh token, or null; access tokens are not accepted here
+    public Claims getRefreshClaims(String refreshToken) {
+        Claims claims = verify(refreshToken);
+        if (claims == null || !REFRESH_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM, String.class)) || isRevoked(claims)) {
+            return null;
         }
+        return claims;
     }
 
-    public static Claims getClaims(String token) {
+    private Claims verify(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .setSigningKey(secretKey)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();  // Use getBody() to retrieve the payload
-            return claims;
-        } catch (SignatureException e) {
-            System.out.println("Invalid token");
+            return parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Rejected token: {}", e.getMessage());
             return null;
         }
+    }
+
+    private boolean isRevoked(Claims claims) {
+        Integer userId = claims.get("id", Integer.class);
+        Date issuedAt = claims.getIssuedAt();
+        return userId != null && revocationList.isRevoked(userId, issuedAt == null ? null : issuedAt.toInstant());
+    }
 
+    // Rejects every token issued to the user up to now, e.g. on deactivation or deletion
+    public void revokeAllTokens(int userId) {
+        revocationList.revokeAll(userId, Math.max(accessTokenLifetimeMillis, refreshTokenLifetimeMillis));
+    }
 
+    private static String tokenHash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.monikatammineni.fsadproject.jwt;
+
+import com.monikatammineni.fsadproject.cache.CacheRegistry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse + verify throughput of the per-call parser TokenHelper used to build, against the shared parser
+ * behind the verified-claims cache. Run with main() from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenHelperBenchmark {
+
+    private JwtKeyRing keyRing;
+    private TokenHelper tokenHelper;
+    private String token;
+
+    @Setup
+    public void setup() {
+        keyRing = new JwtKeyRing("", "");
+        tokenHelper = new TokenHelper(keyRing, new CacheRegistry(), new TokenRevocationList(null), 15, 7);
+        token = tokenHelper.createToken(42, "5550100", "DOCTOR");
+        tokenHelper.getClaims(token); // prime the cache
+    }
+
+    @Benchmark
+    public Claims parserPerCall() {
+        return Jwts.parser()
+                .keyLocator(keyRing)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    @Benchmark
+    public Claims cachedClaims() {
+        return tokenHelper.getClaims(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TokenHelperBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,166 @@
+package com.monikatammineni.fsadproject.jwt;
+
+import com.monikatammineni.fsadproject.entity.TokenRevocation;
+import com.monikatammineni.fsadproject.repository.TokenRevocationRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-user revocation watermarks: once a user is deactivated or deleted, every token issued to them at or before
+ * that moment is rejected.
+ * <p>
+ * The check runs on every authenticated request, so a small Bloom filter over revoked user ids answers the common
+ * "never revoked" case with a few bit reads; only possible hits consult the exact map. Watermarks are stored in
+ * token_revocations so they survive restarts, and are dropped once every token they cover has expired anyway.
+ * They are loaded while the context starts, before the web server accepts requests, and every node re-reads the
+ * table on a short interval, so a revocation made on another node takes effect here within
+ * {@code jwt.revocation-sync-ms}.
+ * Revocation is rare, so writers take a lock; readers never do. The lock is a ReentrantLock rather than a
+ * synchronized block because writers do JDBC work while holding it, which would pin a virtual thread.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final int BLOOM_BITS = 1 << 16;
+    private static final int BLOOM_HASHES = 3;
+
+    private final TokenRevocationRepository revocationRepository;
+    private final Map<Integer, TokenRevocation> watermarks = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter = new BloomFilter(BLOOM_BITS, BLOOM_HASHES);
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    //logger
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(TokenRevocationList.class);
+
+    public TokenRevocationList(TokenRevocationRepository revocationRepository) {
+        this.revocationRepository = revocationRepository;
+    }
+
+    @PostConstruct
+    public void load() {
+        sync();
+        log.info("Loaded {} token revocations", watermarks.size());
+    }
+
+    // Picks up revocations written by other nodes; the table only holds unexpired watermarks, so it stays small
+    @Scheduled(fixedDelayString = "${jwt.revocation-sync-ms:5000}", initialDelayString = "${jwt.revocation-sync-ms:5000}")
+    public void sync() {
+        List<TokenRevocation> stored = revocationRepository.findByExpiresAtAfter(Instant.now());
+        writeLock.lock();
+        try {
+            for (TokenRevocation revocation : stored) {
+                // Keep whichever watermark is later, a local revokeAll may have raced the read
+                TokenRevocation current = watermarks.get(revocation.getUserId());
+                if (current == null || revocation.getRevokedAt().isAfter(current.getRevokedAt())) {
+                    bloomFilter.add(revocation.getUserId());
+                    watermarks.put(revocation.getUserId(), revocation);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // issuedAt is the token's iat claim, which JWT keeps in whole seconds
+    public boolean isRevoked(int userId, Instant issuedAt) {
+        if (!bloomFilter.mightContain(userId)) {
+            return false;
+        }
+        TokenRevocation revocation = watermarks.get(userId);
+        return revocation != null && issuedAt != null && !issuedAt.isAfter(revocation.getRevokedAt());
+    }
+
+    // Invalidates all tokens issued to the user so far; tokenLifetimeMillis is the longest lifetime of any token
+    public void revokeAll(int userId, long tokenLifetimeMillis) {
+        writeLock.lock();
+        try {
+            Instant now = Instant.now();
+            // Stored in the same whole seconds as iat; a token from the revocation's own second can't be told apart
+            // from one issued just before it, so those are all rejected
+            Instant revokedAt = now.truncatedTo(ChronoUnit.SECONDS);
+            TokenRevocation revocation = new TokenRevocation(userId, revokedAt, now.plusMillis(tokenLifetimeMillis));
+            revocationRepository.save(revocation);
+            watermarks.put(userId, revocation);
+            bloomFilter.add(userId);
+            log.info("Revoked tokens of user {} issued at or before {}", userId, revokedAt);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Bloom filters cannot forget, so expired watermarks are dropped by rebuilding the filter from what is left
+    @Scheduled(fixedDelayString = "${jwt.revocation-purge-ms:3600000}")
+    public void purgeExpired() {
+        writeLock.lock();
+        try {
+            Instant now = Instant.now();
+            int before = watermarks.size();
+            watermarks.values().removeIf(revocation -> !revocation.getExpiresAt().isAfter(now));
+            if (watermarks.size() != before) {
+                BloomFilter rebuilt = new BloomFilter(BLOOM_BITS, BLOOM_HASHES);
+                watermarks.keySet().forEach(rebuilt::add);
+                bloomFilter = rebuilt;
+            }
+            long deleted = revocationRepository.deleteByExpiresAtBefore(now);
+            if (deleted > 0) {
+                log.info("Purged {} expired token revocations", deleted);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static final class BloomFilter {
+        private final AtomicLongArray bits;
+        private final int size;
+        private final int hashes;
+
+        BloomFilter(int size, int hashes) {
+            this.bits = new AtomicLongArray(size / Long.SIZE);
+            this.size = size;
+            this.hashes = hashes;
+        }
+
+        void add(int value) {
+            long hash = mix(value);
+            for (int i = 0; i < hashes; i++) {
+                int bit = index(hash, i);
+                bits.getAndUpdate(bit >>> 6, word -> word | (1L << bit));
+            }
+        }
+
+        boolean mightContain(int value) {
+            long hash = mix(value);
+            for (int i = 0; i < hashes; i++) {
+                int bit = index(hash, i);
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Double hashing on the two halves of one 64-bit mix
+        private int index(long hash, int i) {
+            int combined = (int) hash + i * (int) (hash >>> 32);
+            return Math.floorMod(combined, size);
+        }
+
+        private static long mix(int value) {
+            long h = value * 0x9E3779B97F4A7C15L;
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.monikatammineni.fsadproject.loadtest;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load generator for /s3/downloadFile: keeps {@code concurrency} downloads in flight for the given
+ * duration and reports completed downloads per second, bytes per second and latency percentiles.
+ * <p>
+ * To compare execution modes, start the application once with {@code --spring.threads.virtual.enabled=true} and
+ * once with {@code false}, and run this against each:
+ * <pre>
+ * java ... DownloadLoadTest http://localhost:8080 &lt;token&gt; &lt;fileId&gt; 1000 60
+ * </pre>
+ * Client-side requests run on virtual threads so the generator itself is never the bottleneck.
+ */
+public class DownloadLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("usage: DownloadLoadTest <baseUrl> <token> <fileId> [concurrency=1000] [seconds=60]");
+            System.exit(2);
+        }
+        String baseUrl = args[0];
+        String token = args[1];
+        String fileId = args[2];
+        int concurrency = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        int seconds = args.length > 4 ? Integer.parseInt(args[4]) : 60;
+
+        URI uri = URI.create(baseUrl + "/s3/downloadFile?fileId=" + fileId);
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        LongAdder completed = new LongAdder();
+        LongAdder failed = new LongAdder();
+        LongAdder bytes = new LongAdder();
+        List<long[]> latencies = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                long[] workerLatencies = new long[1 << 12];
+                latencies.add(workerLatencies);
+                workers.submit(() -> {
+                    int samples = 0;
+                    byte[] buffer = new byte[8192];
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpRequest request = HttpRequest.newBuilder(uri)
+                                    .header("Authorization", "Bearer " + token)
+                                    .timeout(Duration.ofSeconds(120))
+                                    .GET()
+                                    .build();
+                            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                            long read = 0;
+                            try (InputStream body = response.body()) {
+                                for (int n; (n = body.read(buffer)) != -1; ) {
+                                    read += n;
+                                }
+                            }
+                            if (response.statusCode() / 100 == 2) {
+                                completed.increment();
+                                bytes.add(read);
+                                if (samples < workerLatencies.length) {
+                                    workerLatencies[samples++] = System.nanoTime() - start;
+                                }
+                            } else {
+                                failed.increment();
+                            }
+                        } catch (Exception e) {
+                            failed.increment();
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).filter(latency -> latency > 0).sorted().toArray();
+        System.out.printf("concurrency=%d duration=%ds%n", concurrency, seconds);
+        System.out.printf("completed=%d failed=%d throughput=%.1f downloads/s %.1f MB/s%n",
+                completed.sum(), failed.sum(), completed.sum() / (double) seconds,
+                bytes.sum() / (double) seconds / (1024 * 1024));
+        if (all.length > 0) {
+            System.out.printf("latency p50=%dms p95=%dms p99=%dms max=%dms%n",
+                    percentile(all, 0.50), percentile(all, 0.95), percentile(all, 0.99), percentile(all, 1.0));
+        }
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+        return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, index)]);
+    }
+}
@@ -0,0 +1,54 @@
+package com.monikatammineni.fsadproject.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Throttles /auth/login and /auth/register per client IP, and logins per (email, client IP) and per email, before any
+ * database or BCrypt work. The IP limit caps one client spraying many accounts; the (email, IP) limit caps one client
+ * guessing a single account's password; the looser email limit caps guessing one account's password from many IPs.
+ * Because the email limit is set well above what one person types, a stranger hammering someone's email from a
+ * single address hits the (email, IP) limit long before the real owner is locked out. Client IPs come from {@code getRemoteAddr()}, which the forwarded-headers
+ * strategy set in {@code FsadProjectApplication} resolves to the caller behind the load balancer.
+ */
+@Component
+public class AuthRateLimits {
+
+    private final RateLimiter loginByIp;
+    private final RateLimiter loginByEmailAndIp;
+    private final RateLimiter loginByEmail;
+    private final RateLimiter registerByIp;
+
+    public AuthRateLimits(RateLimiterRegistry registry,
+                          @Value("${ratelimit.max-keys:100000}") int maxKeys,
+                          @Value("${ratelimit.login.ip-per-minute:30}") int loginIpPerMinute,
+                          @Value("${ratelimit.login.ip-burst:10}") int loginIpBurst,
+                          @Value("${ratelimit.login.email-ip-per-minute:5}") int loginEmailIpPerMinute,
+                          @Value("${ratelimit.login.email-ip-burst:5}") int loginEmailIpBurst,
+                          @Value("${ratelimit.login.email-per-minute:20}") int loginEmailPerMinute,
+                          @Value("${ratelimit.login.email-burst:20}") int loginEmailBurst,
+                          @Value("${ratelimit.register.ip-per-minute:5}") int registerIpPerMinute,
+                          @Value("${ratelimit.register.ip-burst:3}") int registerIpBurst) {
+        this.loginByIp = registry.create("login.ip", loginIpPerMinute, loginIpBurst, maxKeys);
+        this.loginByEmailAndIp = registry.create("login.email-ip", loginEmailIpPerMinute, loginEmailIpBurst, maxKeys);
+        this.loginByEmail = registry.create("login.email", loginEmailPerMinute, loginEmailBurst, maxKeys);
+        this.registerByIp = registry.create("register.ip", registerIpPerMinute, registerIpBurst, maxKeys);
+    }
+
+    // 0 when the login may proceed, otherwise milliseconds until it may be retried
+    public long checkLogin(String clientIp, String email) {
+        long retryAfter = loginByIp.tryAcquire(clientIp);
+        if (retryAfter == 0 && email != null) {
+            String normalizedEmail = email.trim().toLowerCase();
+            retryAfter = loginByEmailAndIp.tryAcquire(normalizedEmail + "|" + clientIp);
+            if (retryAfter == 0) {
+                retryAfter = loginByEmail.tryAcquire(normalizedEmail);
+            }
+        }
+        return retryAfter;
+    }
+
+    public long checkRegister(String clientIp) {
+        return registerByIp.tryAcquire(clientIp);
+    }
+}
@@ -0,0 +1,9 @@
+package com.monikatammineni.fsadproject.ratelimit;
+
+public record RateLimitStats(int keys, int maxKeys, long allowed, long rejected, long evictions) {
+
+    public double getRejectionRate() {
+        long requests = allowed + rejected;
+        return requests == 0 ? 0 : (double) rejected / requests;
+    }
+}
@@ -0,0 +1,89 @@
+package com.monikatammineni.fsadproject.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free per-key token bucket, kept as a single "theoretical arrival time" per key (the GCRA form of a token
+ * bucket): a request is admitted while that time is no more than {@code burst - 1} refill intervals ahead of now,
+ * and each admitted request pushes it one interval further with a compare-and-set.
+ * <p>
+ * At most {@code maxKeys} buckets are kept. A bucket whose arrival time has passed is full, which is the same as
+ * having no bucket, so those are dropped first when the map grows past its bound; only if every bucket is still
+ * draining are arbitrary ones evicted.
+ */
+public class RateLimiter {
+
+    private final long refillIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxKeys;
+    private final long origin = System.nanoTime();
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RateLimiter(int permitsPerMinute, int burst, int maxKeys) {
+        if (permitsPerMinute <= 0 || burst <= 0 || maxKeys <= 0) {
+            throw new IllegalArgumentException("permitsPerMinute, burst and maxKeys must be positive");
+        }
+        this.refillIntervalNanos = TimeUnit.MINUTES.toNanos(1) / permitsPerMinute;
+        this.burstToleranceNanos = refillIntervalNanos * (burst - 1);
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Takes one permit for the key. Returns 0 when admitted, otherwise the milliseconds until a permit is free.
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime() - origin;
+        AtomicLong arrival = buckets.get(key);
+        if (arrival == null) {
+            arrival = buckets.computeIfAbsent(key, k -> new AtomicLong());
+            if (buckets.size() > maxKeys) {
+                sweep(now);
+            }
+        }
+        while (true) {
+            long current = arrival.get();
+            long start = Math.max(current, now);
+            long ahead = start - now;
+            if (ahead > burstToleranceNanos) {
+                rejected.increment();
+                return Math.max(1, TimeUnit.NANOSECONDS.toMillis(ahead - burstToleranceNanos));
+            }
+            if (arrival.compareAndSet(current, start + refillIntervalNanos)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    private void sweep(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return; // another thread is already making room
+        }
+        try {
+            int before = buckets.size();
+            buckets.values().removeIf(arrival -> arrival.get() <= now);
+            Iterator<AtomicLong> iterator = buckets.values().iterator();
+            while (buckets.size() > maxKeys && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+            evictions.add(Math.max(0, before - buckets.size()));
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    public RateLimitStats stats() {
+        return new RateLimitStats(buckets.size(), maxKeys, allowed.sum(), rejected.sum(), evictions.sum());
+    }
+}
@@ -0,0 +1,28 @@
+package com.monikatammineni.fsadproject.ratelimit;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of the application's rate limiters so their rejection counters can be reported in one place.
+ */
+@Component
+public class RateLimiterRegistry {
+
+    private final Map<String, RateLimiter> limiters = new ConcurrentHashMap<>();
+
+    public RateLimiter create(String name, int permitsPerMinute, int burst, int maxKeys) {
+        RateLimiter limiter = new RateLimiter(permitsPerMinute, burst, maxKeys);
+        limiters.put(name, limiter);
+        return limiter;
+    }
+
+    public Map<String, RateLimitStats> stats() {
+        Map<String, RateLimitStats> stats = new TreeMap<>();
+        limiters.forEach((name, limiter) -> stats.put(name, limiter.stats()));
+        return stats;
+    }
+}
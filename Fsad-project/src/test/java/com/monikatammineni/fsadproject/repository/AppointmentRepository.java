@@ -2,15 +2,67 @@ package com.monikatammineni.fsadproject.repository;
 
 import com.monikatammineni.fsadproject.entity.Appointment;
 import com.monikatammineni.fsadproject.entity.Credential;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface AppointmentRepository extends CrudRepository<Appointment, Integer> {
     Appointment findByAppointmentId(int appointmentId);
 
-    <List>Appointment findByPatientId(int userId);
+    List<Appointment> findByPatientId(int userId);
+
+    List<Appointment> findByAppointmentDate(LocalDate date);
+
+    // Cursor-backed stream of a patient's full history; MIN_VALUE fetch size makes MySQL stream rows
+    // instead of buffering the result set. Must be consumed inside a transaction and closed.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select a from Appointment a where a.patientId = :patientId order by a.appointmentDate, a.appointmentTime")
+    Stream<Appointment> streamByPatientId(@Param("patientId") int patientId);
+
+    List<Appointment> findByAppointmentDateGreaterThanEqual(LocalDate date);
+
+    List<Appointment> findByDoctorIdAndAppointmentDateGreaterThanEqual(int doctorId, LocalDate date);
+
+    // Stored exceptions (cancelled/moved occurrences) of recurring series
+    List<Appointment> findBySeriesIdInAndOccurrenceDateBetween(Collection<Integer> seriesIds, LocalDate fromDate, LocalDate toDate);
+
+    List<Appointment> findBySeriesId(int seriesId);
+
+    // Calendar range queries, served by the (doctor_id|patient_id, appointment_date, appointment_time) indexes
+    List<Appointment> findByDoctorIdAndAppointmentDateBetweenOrderByAppointmentDateAscAppointmentTimeAsc(
+            int doctorId, LocalDate fromDate, LocalDate toDate);
+
+    List<Appointment> findByPatientIdAndAppointmentDateBetweenOrderByAppointmentDateAscAppointmentTimeAsc(
+            int patientId, LocalDate fromDate, LocalDate toDate);
 
-    <List>Appointment findByAppointmentDate(String date);
+    // Keyset page: rows after the cursor id in id order, every filter is optional (null = no filter)
+    @Query("select a from Appointment a where a.appointmentId > :cursor"
+            + " and (:doctorId is null or a.doctorId = :doctorId)"
+            + " and (:patientId is null or a.patientId = :patientId)"
+            + " and (:status is null or a.status = :status)"
+            + " and (:fromDate is null or a.appointmentDate >= :fromDate)"
+            + " and (:toDate is null or a.appointmentDate <= :toDate)"
+            + " order by a.appointmentId")
+    List<Appointment> findPageAfter(@Param("cursor") int cursor,
+                                    @Param("doctorId") Integer doctorId,
+                                    @Param("patientId") Integer patientId,
+                                    @Param("status") Appointment.statusType status,
+                                    @Param("fromDate") LocalDate fromDate,
+                                    @Param("toDate") LocalDate toDate,
+                                    Pageable pageable);
 
 //    Appointment save(Appointment appointment);
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package com.monikatammineni.fsadproject.repository;
+
+import com.monikatammineni.fsadproject.entity.AppointmentSeries;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface AppointmentSeriesRepository extends CrudRepository<AppointmentSeries, Integer> {
+    AppointmentSeries findBySeriesId(int seriesId);
+
+    // Series that can have an occurrence between the two dates; doctor and patient filters are optional
+    @Query("select s from AppointmentSeries s where s.startDate <= :toDate"
+            + " and (s.untilDate is null or s.untilDate >= :fromDate)"
+            + " and (:doctorId is null or s.doctorId = :doctorId)"
+            + " and (:patientId is null or s.patientId = :patientId)")
+    List<AppointmentSeries> findOverlapping(@Param("fromDate") LocalDate fromDate,
+                                            @Param("toDate") LocalDate toDate,
+                                            @Param("doctorId") Integer doctorId,
+                                            @Param("patientId") Integer patientId);
+}
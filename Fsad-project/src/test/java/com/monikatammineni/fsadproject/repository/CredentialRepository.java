@@ -1,7 +1,12 @@
 package com.monikatammineni.fsadproject.repository;
 
 import com.monikatammineni.fsadproject.entity.Credential;
+import com.monikatammineni.fsadproject.entity.LoginAccount;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface CredentialRepository extends CrudRepository<Credential, Integer> {
 
@@ -10,4 +15,19 @@ public interface CredentialRepository extends CrudRepository<Credential, Integer
     Credential findByEmail(String email);
 
     Credential findByUserId(int userId);
+
+    @Query("select new com.monikatammineni.fsadproject.entity.LoginAccount(c.userId, c.password, u.status,"
+            + " u.firstName, u.lastName, u.accountType, u.mobileNumber)"
+            + " from Credential c join User u on u.id = c.userId where c.email = :email")
+    LoginAccount findLoginAccountByEmail(@Param("email") String email);
+
+    @Query("select new com.monikatammineni.fsadproject.entity.LoginAccount(c.userId, c.password, u.status,"
+            + " u.firstName, u.lastName, u.accountType, u.mobileNumber)"
+            + " from Credential c join User u on u.id = c.userId where c.userId = :userId")
+    LoginAccount findLoginAccountByUserId(@Param("userId") int userId);
+
+    @Transactional
+    @Modifying
+    @Query("update Credential c set c.password = :password where c.userId = :userId")
+    int updatePassword(@Param("userId") int userId, @Param("password") String password);
 }
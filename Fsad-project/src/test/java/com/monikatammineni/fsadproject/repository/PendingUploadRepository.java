@@ -0,0 +1,12 @@
+package com.monikatammineni.fsadproject.repository;
+
+import com.monikatammineni.fsadproject.entity.PendingUpload;
+import org.springframework.data.repository.CrudRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface PendingUploadRepository extends CrudRepository<PendingUpload, String> {
+
+    List<PendingUpload> findByCreatedAtBefore(Instant cutoff);
+}
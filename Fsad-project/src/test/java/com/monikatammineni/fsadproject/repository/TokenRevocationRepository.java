@@ -0,0 +1,16 @@
+package com.monikatammineni.fsadproject.repository;
+
+import com.monikatammineni.fsadproject.entity.TokenRevocation;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface TokenRevocationRepository extends CrudRepository<TokenRevocation, Integer> {
+
+    List<TokenRevocation> findByExpiresAtAfter(Instant now);
+
+    @Transactional
+    long deleteByExpiresAtBefore(Instant now);
+}
@@ -1,9 +1,16 @@
 package com.monikatammineni.fsadproject.repository;
 
 import com.monikatammineni.fsadproject.entity.User;
+import com.monikatammineni.fsadproject.entity.UserName;
+import com.monikatammineni.fsadproject.entity.UserSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -19,4 +26,29 @@ public interface UserRepository extends CrudRepository<User, Integer> {
     //    List<User> findByEmail(String email);
     User findByEmail(String email);
 
+    boolean existsByEmail(String email);
+
+    // Resolves names for a whole batch of users with a single IN query
+    List<UserName> findByIdIn(Collection<Integer> ids);
+
+    // Id, first and last name only, e.g. for the doctor picker
+    List<UserName> findNamesByAccountTypeOrderByFirstNameAscLastNameAsc(String accountType);
+
+    Slice<UserSummary> findSummariesByAccountType(String accountType, Pageable pageable);
+
+    Slice<UserSummary> findSummariesBy(Pageable pageable);
+
+    // Server-side search for the paged listings: field names one searchable column, pattern is a lower-case LIKE
+    // pattern escaped with '!', and a null accountType searches every account
+    @Query("select u.id as id, u.firstName as firstName, u.lastName as lastName, u.email as email, u.gender as gender,"
+            + " u.mobileNumber as mobileNumber, u.dateOfBirth as dateOfBirth, u.accountType as accountType, u.status as status"
+            + " from User u where (:accountType is null or u.accountType = :accountType) and ("
+            + " (:field = 'firstName' and lower(u.firstName) like :pattern escape '!')"
+            + " or (:field = 'lastName' and lower(u.lastName) like :pattern escape '!')"
+            + " or (:field = 'email' and lower(u.email) like :pattern escape '!')"
+            + " or (:field = 'gender' and lower(u.gender) like :pattern escape '!')"
+            + " or (:field = 'mobileNumber' and u.mobileNumber like :pattern escape '!'))")
+    Slice<UserSummary> searchSummaries(@Param("accountType") String accountType, @Param("field") String field,
+                                       @Param("pattern") String pattern, Pageable pageable);
+
 }
@@ -0,0 +1,145 @@
+package com.monikatammineni.fsadproject.service;
+
+import com.monikatammineni.fsadproject.entity.Appointment;
+import com.monikatammineni.fsadproject.entity.AppointmentEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes appointment create/update/delete events to Server-Sent Events subscribers.
+ * <p>
+ * Publishing never writes to a socket: each subscriber has a bounded queue that is drained by its own sender task
+ * on a virtual thread, so a slow client only parks its own sender. A client that falls {@code events.queue-size}
+ * events behind is disconnected (it reconnects and re-reads the current state) rather than buffering without limit.
+ */
+@Service
+public class AppointmentEventPublisher {
+
+    private static final long HEARTBEAT_SECONDS = 25;
+
+    @Value("${events.queue-size:256}")
+    private int queueSize;
+
+    @Value("${events.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sse-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    //logger
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(AppointmentEventPublisher.class);
+
+    public AppointmentEventPublisher() {
+        // Comment lines keep idle connections open through proxies
+        heartbeat.scheduleAtFixedRate(() -> subscribers.forEach(subscriber ->
+                        subscriber.offer(SseEmitter.event().comment("keep-alive"))),
+                HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // Opens a stream of events, optionally limited to one doctor's appointments or to those one user takes part in
+    // as patient or doctor; with neither set it carries every appointment
+    public SseEmitter subscribe(Integer doctorId, Integer participantId) {
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+        Subscriber subscriber = new Subscriber(emitter, doctorId, participantId, new ArrayBlockingQueue<>(queueSize));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    public void publish(AppointmentEvent.Type type, Appointment appointment, Integer previousDoctorId,
+                        Appointment.statusType previousStatus) {
+        AppointmentEvent event = new AppointmentEvent(type, appointment.getAppointmentId(), appointment.getPatientId(),
+                appointment.getDoctorId(), previousDoctorId, appointment.getStatus(), previousStatus,
+                appointment.getAppointmentDate(), appointment.getAppointmentTime());
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.wants(event)) {
+                subscriber.offer(SseEmitter.event().name(type.name()).data(event));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Integer doctorId;
+        private final Integer participantId;
+        private final Queue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, Integer doctorId, Integer participantId,
+                           Queue<SseEmitter.SseEventBuilder> queue) {
+            this.emitter = emitter;
+            this.doctorId = doctorId;
+            this.participantId = participantId;
+            this.queue = queue;
+        }
+
+        private boolean wants(AppointmentEvent event) {
+            if (participantId != null && participantId != event.getPatientId() && !involvesDoctor(participantId, event)) {
+                return false;
+            }
+            return doctorId == null || involvesDoctor(doctorId, event);
+        }
+
+        private static boolean involvesDoctor(Integer doctorId, AppointmentEvent event) {
+            return doctorId == event.getDoctorId() || doctorId.equals(event.getPreviousDoctorId());
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event) {
+            if (!queue.offer(event)) {
+                log.info("Disconnecting SSE subscriber that fell {} events behind", queueSize);
+                subscribers.remove(this);
+                emitter.complete();
+                return;
+            }
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                sending.set(false);
+            }
+            // An event may have been queued after the last poll but before the flag was cleared
+            if (!queue.isEmpty() && sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+    }
+}
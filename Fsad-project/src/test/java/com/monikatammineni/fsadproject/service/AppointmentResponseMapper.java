@@ -0,0 +1,75 @@
+package com.monikatammineni.fsadproject.service;
+
+import com.monikatammineni.fsadproject.entity.Appointment;
+import com.monikatammineni.fsadproject.entity.AppointmentResponse;
+import com.monikatammineni.fsadproject.entity.UserName;
+import com.monikatammineni.fsadproject.repository.UserRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+public class AppointmentResponseMapper {
+
+    private final UserRepository userRepository;
+
+    public AppointmentResponseMapper(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    // Builds the response rows for a batch of appointments. Patient, doctor and creator names are
+    // resolved with one query for the whole batch instead of three lookups per row.
+    public List<AppointmentResponse> toAppointmentResponses(List<Appointment> list) {
+        Set<Integer> userIds = new HashSet<>();
+        list.forEach(item -> {
+            userIds.add(item.getPatientId());
+            userIds.add(item.getDoctorId());
+            userIds.add(item.getCreatedByUserId());
+        });
+        Map<Integer, UserName> names = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            userRepository.findByIdIn(userIds).forEach(name -> names.put(name.getId(), name));
+        }
+
+        List<AppointmentResponse> outputList = new ArrayList<>(list.size());
+        list.forEach(item -> {
+            AppointmentResponse temp = new AppointmentResponse();
+            temp.setAppointmentId(item.getAppointmentId());
+            temp.setAppointmentDate(item.getAppointmentDate());
+            temp.setAppointmentTime(item.getAppointmentTime());
+            temp.setNotes(item.getNotes());
+            temp.setStatus(item.getStatus());
+            temp.setSeriesId(item.getSeriesId());
+            temp.setOccurrenceDate(item.getOccurrenceDate());
+
+            temp.setPatientId(item.getPatientId());
+            UserName user = names.get(item.getPatientId());
+            if (user != null) {
+                temp.setPatientFirstName(user.getFirstName());
+                temp.setPatientLastName(user.getLastName());
+            }
+
+            temp.setDoctorId(item.getDoctorId());
+            user = names.get(item.getDoctorId());
+            if (user != null) {
+                temp.setDoctorFirstName(user.getFirstName());
+                temp.setDoctorLastName(user.getLastName());
+            }
+
+            temp.setCreatedByUserId(item.getCreatedByUserId());
+            user = names.get(item.getCreatedByUserId());
+            if (user != null) {
+                temp.setCreatedByFirstName(user.getFirstName());
+                temp.setCreatedByLastName(user.getLastName());
+            }
+
+            outputList.add(temp);
+        });
+        return outputList;
+    }
+}
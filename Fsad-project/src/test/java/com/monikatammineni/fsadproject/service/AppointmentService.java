@@ -1,19 +1,48 @@
 package com.monikatammineni.fsadproject.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.monikatammineni.fsadproject.entity.Appointment;
+import com.monikatammineni.fsadproject.entity.AppointmentEvent;
+import com.monikatammineni.fsadproject.entity.AppointmentOperation;
+import com.monikatammineni.fsadproject.entity.AppointmentOperationResult;
+import com.monikatammineni.fsadproject.entity.AppointmentPageResponse;
 import com.monikatammineni.fsadproject.entity.AppointmentResponse;
+import com.monikatammineni.fsadproject.entity.AppointmentSeries;
+import com.monikatammineni.fsadproject.entity.AvailableSlot;
+import com.monikatammineni.fsadproject.entity.RegisterRequest;
 import com.monikatammineni.fsadproject.entity.User;
+import com.monikatammineni.fsadproject.jwt.AuthenticatedUser;
 import com.monikatammineni.fsadproject.jwt.TokenHelper;
 import com.monikatammineni.fsadproject.repository.AppointmentRepository;
+import com.monikatammineni.fsadproject.repository.AppointmentSeriesRepository;
 import com.monikatammineni.fsadproject.repository.UserRepository;
-import io.jsonwebtoken.Claims;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class AppointmentService {
@@ -27,46 +56,117 @@ public class AppointmentService {
     @Autowired
     private TokenHelper tokenHelper;
 
+    @Autowired
+    private ScheduleEngine scheduleEngine;
+
+    @Autowired
+    private AppointmentSeriesRepository seriesRepository;
+
+    @Autowired
+    private RecurrenceService recurrenceService;
+
+    @Autowired
+    private AppointmentEventPublisher eventPublisher;
+
+    @Autowired
+    private AppointmentResponseMapper responseMapper;
+
+    @Autowired
+    private DaySheetCache daySheetCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
 
     //logger
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(AppointmentService.class);
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_AVAILABILITY_DAYS = 30;
+    private static final int MAX_BULK_OPERATIONS = 1000;
+
     public ResponseEntity<Object> getAllAppointments() {
         // Logic to retrieve all appointments
         List<Appointment> list = (List<Appointment>) appointmentRepository.findAll();
-        List<AppointmentResponse> outputList = new ArrayList<>();
-        //go through each item in list and fetch user detials and put each one in outputlist
-        list.forEach(item -> {
-            AppointmentResponse temp = new AppointmentResponse();
-            temp.setAppointmentId(item.getAppointmentId());
-            temp.setAppointmentDate(item.getAppointmentDate());
-            temp.setAppointmentTime(item.getAppointmentTime());
-            temp.setNotes(item.getNotes());
-            //finish off the rest
-            temp.setStatus(item.getStatus());
-
-            temp.setPatientId(item.getPatientId());
-            User user = userRepository.findById(item.getPatientId());
-            temp.setPatientFirstName(user.getFirstName());
-            temp.setPatientLastName(user.getLastName());
-
-            temp.setDoctorId(item.getDoctorId());
-            user = userRepository.findById(item.getDoctorId());
-            temp.setDoctorFirstName(user.getFirstName());
-            temp.setDoctorLastName(user.getLastName());
-
-            temp.setCreatedByUserId(item.getCreatedByUserId());
-            user = userRepository.findById(item.getCreatedByUserId());
-            temp.setCreatedByFirstName(user.getFirstName());
-            temp.setCreatedByLastName(user.getLastName());
-
-            outputList.add(temp);
-        });
         //return response with the list of appointments and also message
         if (list.isEmpty()) {
             return ResponseEntity.ok("No appointments found");
         }
-        return ResponseEntity.ok(outputList);
+        return ResponseEntity.ok(responseMapper.toAppointmentResponses(list));
+    }
+
+    public ResponseEntity<Object> listAppointments(String token, Integer cursor, int limit, Integer doctorId,
+                                                   Integer patientId, Appointment.statusType status,
+                                                   LocalDate fromDate, LocalDate toDate) {
+        // Keyset pagination on appointmentId so each page is an index range scan, never an OFFSET
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return ResponseEntity.status(401).body("Invalid or expired token.");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        int after = cursor == null ? 0 : cursor;
+
+        // Fetch one extra row to learn whether another page exists
+        List<Appointment> rows = appointmentRepository.findPageAfter(after, doctorId, patientId, status,
+                fromDate, toDate, PageRequest.of(0, pageSize + 1));
+        Integer nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextCursor = rows.get(pageSize - 1).getAppointmentId();
+        }
+        // Recurring occurrences have no id to page on, so a dated first page carries the whole range of them
+        List<AppointmentResponse> occurrences = new ArrayList<>();
+        if (cursor == null && fromDate != null && toDate != null
+                && (status == null || status == Appointment.statusType.SCHEDULED)) {
+            occurrences = responseMapper.toAppointmentResponses(recurrenceService.expand(fromDate, toDate, doctorId, patientId));
+        }
+        return ResponseEntity.ok(new AppointmentPageResponse(responseMapper.toAppointmentResponses(rows), nextCursor, occurrences));
+    }
+
+    // Notifies live subscribers and rebuilds the day sheets the change touched
+    private void afterChange(AppointmentEvent.Type type, Appointment appointment, Integer previousDoctorId,
+                             LocalDate previousDate, Appointment.statusType previousStatus) {
+        eventPublisher.publish(type, appointment, previousDoctorId, previousStatus);
+        daySheetCache.refresh(appointment.getDoctorId(), appointment.getAppointmentDate());
+        if (previousDoctorId != null && previousDate != null
+                && (previousDoctorId != appointment.getDoctorId() || !previousDate.equals(appointment.getAppointmentDate()))) {
+            daySheetCache.refresh(previousDoctorId, previousDate);
+        }
+    }
+
+    public ResponseEntity<Object> getDaySheet(String token, int doctorId, LocalDate date) {
+        // Logic to serve a doctor's day from the precomputed day-sheet cache
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return ResponseEntity.status(401).body("Invalid or expired token.");
+        }
+        // The sheet lists patient names, so only staff and the doctor themselves may read it
+        if (!isStaff(principal) && principal.id() != doctorId) {
+            return ResponseEntity.status(403).body("Not allowed to view this doctor's day sheet.");
+        }
+        return ResponseEntity.ok(daySheetCache.get(doctorId, date == null ? LocalDate.now() : date));
+    }
+
+    public ResponseEntity<SseEmitter> subscribe(String token, Integer doctorId) {
+        // Live feed that replaces polling getAllAppointments for status changes
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return ResponseEntity.status(401).build();
+        }
+        if (isStaff(principal)) {
+            return ResponseEntity.ok(eventPublisher.subscribe(doctorId, null));
+        }
+        // Everyone else only hears about appointments they are the doctor or patient of
+        if (doctorId != null && doctorId != principal.id()) {
+            return ResponseEntity.status(403).build();
+        }
+        return ResponseEntity.ok(eventPublisher.subscribe(doctorId, principal.id()));
     }
 
     public ResponseEntity<Object> getAppointment(int appointmentId) {
@@ -80,14 +180,20 @@ public class AppointmentService {
         // Logic to edit an existing appointment
         Appointment existingAppointment = appointmentRepository.findById(appointment.getAppointmentId())
                 .orElseThrow(() -> new RuntimeException("Appointment not found with ID: " + appointment.getAppointmentId()));
+        int previousDoctorId = existingAppointment.getDoctorId();
+        LocalDate previousDate = existingAppointment.getAppointmentDate();
+        Appointment.statusType previousStatus = existingAppointment.getStatus();
         // Update the existing appointment with new details
         existingAppointment.setAppointmentDate(appointment.getAppointmentDate());
         existingAppointment.setAppointmentTime(appointment.getAppointmentTime());
         existingAppointment.setNotes(appointment.getNotes());
         existingAppointment.setStatus(appointment.getStatus());
         existingAppointment.setDoctorId(appointment.getDoctorId());
-        appointmentRepository.save(existingAppointment);
+        if (!scheduleEngine.book(previousDoctorId, existingAppointment, () -> appointmentRepository.save(existingAppointment))) {
+            return ResponseEntity.status(409).body("Doctor already has an appointment at " + appointment.getAppointmentDate() + " " + appointment.getAppointmentTime());
+        }
 
+        afterChange(AppointmentEvent.Type.UPDATED, existingAppointment, previousDoctorId, previousDate, previousStatus);
         return ResponseEntity.ok("Appointment with ID " + appointment.getAppointmentId() + " edited successfully");
     }
 
@@ -96,36 +202,351 @@ public class AppointmentService {
         Appointment appointment = appointmentRepository.findById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found with ID: " + appointmentId));
         appointmentRepository.delete(appointment);
+        scheduleEngine.release(appointment);
+        if (appointment.getSeriesId() != null) {
+            // Deleting a stored exception restores the series occurrence it replaced
+            AppointmentSeries series = seriesRepository.findBySeriesId(appointment.getSeriesId());
+            if (series != null) {
+                scheduleEngine.resync(Set.of(series.getDoctorId(), appointment.getDoctorId()));
+                daySheetCache.refresh(series.getDoctorId(), appointment.getOccurrenceDate());
+            }
+        }
+        afterChange(AppointmentEvent.Type.DELETED, appointment, null, null, appointment.getStatus());
         return ResponseEntity.ok("Appointment with ID " + appointmentId + " deleted successfully");
     }
 
     public ResponseEntity<Object> createAppointment(String token, Appointment appointment) {
         // Logic to create a new appointment
-        Claims claims = TokenHelper.getClaims(token);
-        if (claims == null) {
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
             return ResponseEntity.status(401).body("Invalid or expired token.");
         }
         else{
-            int createdByUserid = claims.get("id", Integer.class);
+            int createdByUserid = principal.id();
             appointment.setCreatedByUserId(createdByUserid);
         }
         log.info(appointment.toString());
-        appointmentRepository.save(appointment);
+        if (!scheduleEngine.book(null, appointment, () -> appointmentRepository.save(appointment))) {
+            return ResponseEntity.status(409).body("Doctor already has an appointment at " + appointment.getAppointmentDate() + " " + appointment.getAppointmentTime());
+        }
+        afterChange(AppointmentEvent.Type.CREATED, appointment, null, null, null);
         return ResponseEntity.ok("Appointment created successfully.");
     }
 
+    public ResponseEntity<Object> getNextFreeSlots(String token, int doctorId, LocalDateTime from, int count) {
+        // Logic to find the doctor's next free slots from the in-memory schedule
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return ResponseEntity.status(401).body("Invalid or expired token.");
+        }
+        LocalDateTime start = from == null ? LocalDateTime.now() : from;
+        return ResponseEntity.ok(scheduleEngine.nextFreeSlots(doctorId, start, Math.max(1, Math.min(count, MAX_PAGE_SIZE))));
+    }
+
+    public ResponseEntity<Object> applyOperations(String token, List<AppointmentOperation> operations) {
+        // Logic to create/update/cancel many appointments in one request: one token check, one transaction,
+        // and JDBC-batched inserts/updates at commit. Each operation gets its own result.
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return ResponseEntity.status(401).body("Invalid or expired token.");
+        }
+        if (operations == null || operations.isEmpty()) {
+            return ResponseEntity.badRequest().body("No operations supplied.");
+        }
+        if (operations.size() > MAX_BULK_OPERATIONS) {
+            return ResponseEntity.badRequest().body("At most " + MAX_BULK_OPERATIONS + " operations are allowed per request.");
+        }
+        int createdByUserId = principal.id();
+        long start = System.nanoTime();
+
+        List<AppointmentOperationResult> results = new ArrayList<>(operations.size());
+        Set<Integer> touchedDoctors = new HashSet<>();
+        List<Runnable> notifications = new ArrayList<>();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                // Every existing appointment referenced by the batch is loaded with one query
+                Set<Integer> existingIds = new HashSet<>();
+                operations.forEach(operation -> {
+                    if (operation != null && operation.getType() != AppointmentOperation.Type.CREATE
+                            && operation.getAppointment() != null && operation.getAppointment().getAppointmentId() != null) {
+                        existingIds.add(operation.getAppointment().getAppointmentId());
+                    }
+                });
+                Map<Integer, Appointment> existing = new HashMap<>();
+                appointmentRepository.findAllById(existingIds).forEach(a -> existing.put(a.getAppointmentId(), a));
+
+                for (int i = 0; i < operations.size(); i++) {
+                    results.add(applyOperation(i, operations.get(i), existing, createdByUserId, touchedDoctors, notifications));
+                }
+            });
+        } catch (RuntimeException e) {
+            // Nothing was committed; drop whatever the engine indexed for this batch
+            log.error("Bulk appointment operations failed", e);
+            scheduleEngine.resync(touchedDoctors);
+            return ResponseEntity.internalServerError().body("Bulk operation failed, no changes were saved: " + e.getMessage());
+        }
+        log.info("Applied {} appointment operations in {} ms", operations.size(), (System.nanoTime() - start) / 1_000_000);
+        notifications.forEach(Runnable::run); // only once the batch is committed
+        return ResponseEntity.ok(results);
+    }
+
+    private AppointmentOperationResult applyOperation(int index, AppointmentOperation operation, Map<Integer, Appointment> existing,
+                                                      int createdByUserId, Set<Integer> touchedDoctors,
+                                                      List<Runnable> notifications) {
+        if (operation == null || operation.getType() == null || operation.getAppointment() == null) {
+            return new AppointmentOperationResult(index, null, false, "Operation type and appointment are required.");
+        }
+        Appointment requested = operation.getAppointment();
+        if (operation.getType() == AppointmentOperation.Type.CREATE) {
+            requested.setAppointmentId(null);
+            requested.setCreatedByUserId(createdByUserId);
+            if (requested.getStatus() == null) {
+                requested.setStatus(Appointment.statusType.SCHEDULED);
+            }
+            touchedDoctors.add(requested.getDoctorId());
+            if (!scheduleEngine.book(null, requested, () -> appointmentRepository.save(requested))) {
+                return new AppointmentOperationResult(index, null, false, "Doctor already has an appointment at "
+                        + requested.getAppointmentDate() + " " + requested.getAppointmentTime());
+            }
+            notifications.add(() -> afterChange(AppointmentEvent.Type.CREATED, requested, null, null, null));
+            return new AppointmentOperationResult(index, requested.getAppointmentId(), true, "Created");
+        }
+
+        Appointment current = requested.getAppointmentId() == null ? null : existing.get(requested.getAppointmentId());
+        if (current == null) {
+            return new AppointmentOperationResult(index, requested.getAppointmentId(), false, "Appointment not found.");
+        }
+        int previousDoctorId = current.getDoctorId();
+        LocalDate previousDate = current.getAppointmentDate();
+        Appointment.statusType previousStatus = current.getStatus();
+        if (operation.getType() == AppointmentOperation.Type.CANCEL) {
+            current.setStatus(Appointment.statusType.CANCELLED);
+        } else {
+            current.setAppointmentDate(requested.getAppointmentDate());
+            current.setAppointmentTime(requested.getAppointmentTime());
+            current.setNotes(requested.getNotes());
+            current.setStatus(requested.getStatus());
+            current.setDoctorId(requested.getDoctorId());
+        }
+        touchedDoctors.add(previousDoctorId);
+        touchedDoctors.add(current.getDoctorId());
+        // The entity is managed, so the update is flushed (batched) at commit; no explicit save needed
+        if (!scheduleEngine.book(previousDoctorId, current, () -> current)) {
+            entityManager.detach(current); // keep the rejected change out of the flush
+            existing.remove(current.getAppointmentId());
+            return new AppointmentOperationResult(index, current.getAppointmentId(), false, "Doctor already has an appointment at "
+                    + current.getAppointmentDate() + " " + current.getAppointmentTime());
+        }
+        notifications.add(() -> afterChange(AppointmentEvent.Type.UPDATED, current, previousDoctorId, previousDate, previousStatus));
+        return new AppointmentOperationResult(index, current.getAppointmentId(), true,
+                operation.getType() == AppointmentOperation.Type.CANCEL ? "Cancelled" : "Updated");
+    }
+
     public ResponseEntity<Object> getAllAppointmentsByPatientId(int patientId) {
         // Logic to retrieve all appointments for a specific user by user ID
-        List<Appointment> appointments = Collections.singletonList(appointmentRepository.findByPatientId(patientId));
+        List<Appointment> appointments = appointmentRepository.findByPatientId(patientId);
         if (appointments.isEmpty()) {
             return ResponseEntity.ok("No appointments found for patient ID: " + patientId);
         }
         return ResponseEntity.ok(appointments);
     }
 
-    public ResponseEntity<Object> getAppointmentsByDate(String date) {
+    public ResponseEntity<StreamingResponseBody> streamAppointmentsByPatientId(String token, int patientId) {
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return ResponseEntity.status(401).build();
+        }
+        // A full medical history, so only staff and the patient themselves may download it
+        if (!isStaff(principal) && principal.id() != patientId) {
+            return ResponseEntity.status(403).build();
+        }
+        // Rows are written to the response as they come off the cursor, so the heap only ever holds
+        // one appointment no matter how long the patient's history is
+        StreamingResponseBody body = outputStream -> readOnlyTransaction().executeWithoutResult(status -> {
+            try (Stream<Appointment> rows = appointmentRepository.streamByPatientId(patientId);
+                 JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartArray();
+                Iterator<Appointment> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    Appointment appointment = iterator.next();
+                    generator.writeObject(appointment);
+                    entityManager.detach(appointment);
+                }
+                generator.writeEndArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    public ResponseEntity<Object> getAvailability(String token, LocalDate fromDate, int days, LocalTime fromTime,
+                                                  LocalTime toTime, int limit) {
+        // Logic to find the earliest free slots across every active doctor
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return ResponseEntity.status(401).body("Invalid or expired token.");
+        }
+        LocalDate start = fromDate == null ? LocalDate.now() : fromDate;
+        int horizon = Math.max(1, Math.min(days, MAX_AVAILABILITY_DAYS));
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        LocalTime windowStart = fromTime == null ? LocalTime.MIN : fromTime;
+        LocalTime windowEnd = toTime == null ? LocalTime.MAX : toTime;
+        LocalDateTime now = LocalDateTime.now();
+
+        // Doctors are scanned independently on the fork-join pool against the engine's per-day bitmaps.
+        // No doctor can contribute more than the requested number of slots, which bounds the merge.
+        List<User> doctors = userRepository.findByAccountType(RegisterRequest.AccountType.DOCTOR.toString());
+        List<AvailableSlot> slots = doctors.parallelStream()
+                .filter(User::isStatus)
+                .flatMap(doctor -> scheduleEngine.freeSlots(doctor.getId(), start, horizon, windowStart, windowEnd, now, size)
+                        .stream()
+                        .map(slot -> new AvailableSlot(doctor.getId(), doctor.getFirstName(), doctor.getLastName(),
+                                slot.toLocalDate(), slot.toLocalTime())))
+                .sorted(Comparator.comparing(AvailableSlot::getAppointmentDate)
+                        .thenComparing(AvailableSlot::getAppointmentTime)
+                        .thenComparingInt(AvailableSlot::getDoctorId))
+                .limit(size)
+                .toList();
+        return ResponseEntity.ok(slots);
+    }
+
+    public ResponseEntity<Object> createSeries(String token, AppointmentSeries series) {
+        // Logic to create a recurring appointment: one row, occurrences are expanded when read
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return ResponseEntity.status(401).body("Invalid or expired token.");
+        }
+        if (series.getStartDate() == null || series.getAppointmentTime() == null || series.getFrequency() == null) {
+            return ResponseEntity.badRequest().body("startDate, appointmentTime and frequency are required.");
+        }
+        series.setSeriesId(null);
+        series.setCreatedByUserId(principal.id());
+        LocalDate conflict = scheduleEngine.bookSeries(series, () -> seriesRepository.save(series));
+        if (conflict != null) {
+            return ResponseEntity.status(409).body("Doctor already has an appointment at " + conflict + " " + series.getAppointmentTime());
+        }
+        daySheetCache.invalidateDoctor(series.getDoctorId());
+        return ResponseEntity.ok(series);
+    }
+
+    public ResponseEntity<Object> getSeries(String token, int seriesId) {
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return ResponseEntity.status(401).body("Invalid or expired token.");
+        }
+        AppointmentSeries series = seriesRepository.findById(seriesId)
+                .orElseThrow(() -> new RuntimeException("Appointment series not found with ID: " + seriesId));
+        if (!canAccess(principal, series)) {
+            return ResponseEntity.status(403).body("Not allowed to view this series.");
+        }
+        return ResponseEntity.ok(series);
+    }
+
+    public ResponseEntity<Object> deleteSeries(String token, int seriesId) {
+        // Logic to delete a series together with its stored exceptions
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return ResponseEntity.status(401).body("Invalid or expired token.");
+        }
+        AppointmentSeries series = seriesRepository.findById(seriesId)
+                .orElseThrow(() -> new RuntimeException("Appointment series not found with ID: " + seriesId));
+        if (!canAccess(principal, series)) {
+            return ResponseEntity.status(403).body("Not allowed to delete this series.");
+        }
+        List<Appointment> exceptions = appointmentRepository.findBySeriesId(seriesId);
+        appointmentRepository.deleteAll(exceptions);
+        seriesRepository.delete(series);
+        scheduleEngine.releaseSeries(series);
+        exceptions.forEach(scheduleEngine::release);
+        daySheetCache.invalidateDoctor(series.getDoctorId());
+        exceptions.forEach(exception -> daySheetCache.refresh(exception.getDoctorId(), exception.getAppointmentDate()));
+        return ResponseEntity.ok("Appointment series with ID " + seriesId + " deleted successfully");
+    }
+
+    // Staff see every series; anyone else only the ones they take part in or created
+    private boolean canAccess(AuthenticatedUser principal, AppointmentSeries series) {
+        return isStaff(principal) || principal.id() == series.getPatientId() || principal.id() == series.getDoctorId()
+                || principal.id() == series.getCreatedByUserId();
+    }
+
+    private boolean isStaff(AuthenticatedUser principal) {
+        return RegisterRequest.AccountType.ADMIN.toString().equals(principal.accountType())
+                || RegisterRequest.AccountType.STAFF.toString().equals(principal.accountType());
+    }
+
+    public ResponseEntity<Object> editOccurrence(String token, Appointment occurrence) {
+        // Logic to cancel or move one occurrence of a series by storing it as a real appointment row
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return ResponseEntity.status(401).body("Invalid or expired token.");
+        }
+        if (occurrence.getSeriesId() == null || occurrence.getOccurrenceDate() == null) {
+            return ResponseEntity.badRequest().body("seriesId and occurrenceDate are required.");
+        }
+        AppointmentSeries series = seriesRepository.findBySeriesId(occurrence.getSeriesId());
+        LocalDate date = occurrence.getOccurrenceDate();
+        if (series == null || !recurrenceService.occurrenceDates(series, date, date).contains(date)) {
+            return ResponseEntity.status(404).body("Series " + occurrence.getSeriesId() + " has no occurrence on " + date);
+        }
+        if (!appointmentRepository.findBySeriesIdInAndOccurrenceDateBetween(Set.of(series.getSeriesId()), date, date).isEmpty()) {
+            return ResponseEntity.status(409).body("Occurrence on " + date + " was already changed; edit that appointment instead.");
+        }
+
+        // Unset fields keep the series' values
+        Appointment exception = recurrenceService.toOccurrence(series, date);
+        exception.setCreatedByUserId(principal.id());
+        if (occurrence.getAppointmentDate() != null) {
+            exception.setAppointmentDate(occurrence.getAppointmentDate());
+        }
+        if (occurrence.getAppointmentTime() != null) {
+            exception.setAppointmentTime(occurrence.getAppointmentTime());
+        }
+        if (occurrence.getDoctorId() != 0) {
+            exception.setDoctorId(occurrence.getDoctorId());
+        }
+        if (occurrence.getStatus() != null) {
+            exception.setStatus(occurrence.getStatus());
+        }
+        if (occurrence.getNotes() != null) {
+            exception.setNotes(occurrence.getNotes());
+        }
+        if (!scheduleEngine.bookException(series, exception, () -> appointmentRepository.save(exception))) {
+            return ResponseEntity.status(409).body("Doctor already has an appointment at " + exception.getAppointmentDate() + " " + exception.getAppointmentTime());
+        }
+        afterChange(AppointmentEvent.Type.UPDATED, exception, series.getDoctorId(), date, Appointment.statusType.SCHEDULED);
+        return ResponseEntity.ok(exception);
+    }
+
+    public ResponseEntity<Object> getDoctorAppointments(String token, int doctorId, LocalDate fromDate, LocalDate toDate) {
+        // Logic to retrieve a doctor's calendar between two dates (inclusive)
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return ResponseEntity.status(401).body("Invalid or expired token.");
+        }
+        // The calendar lists patient names, so only staff and the doctor themselves may read it
+        if (!isStaff(principal) && principal.id() != doctorId) {
+            return ResponseEntity.status(403).body("Not allowed to view this doctor's appointments.");
+        }
+        List<Appointment> appointments = new ArrayList<>(appointmentRepository
+                .findByDoctorIdAndAppointmentDateBetweenOrderByAppointmentDateAscAppointmentTimeAsc(doctorId, fromDate, toDate));
+        appointments.addAll(recurrenceService.expand(fromDate, toDate, doctorId, null));
+        appointments.sort(Comparator.comparing(Appointment::getAppointmentDate, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Appointment::getAppointmentTime, Comparator.nullsLast(Comparator.naturalOrder())));
+        return ResponseEntity.ok(responseMapper.toAppointmentResponses(appointments));
+    }
+
+    public ResponseEntity<Object> getAppointmentsByDate(LocalDate date) {
         // Logic to retrieve appointments by date
-        List<Appointment> appointments = Collections.singletonList(appointmentRepository.findByAppointmentDate(date));
+        List<Appointment> appointments = new ArrayList<>(appointmentRepository.findByAppointmentDate(date));
+        appointments.addAll(recurrenceService.expand(date, date, null, null));
         if (appointments.isEmpty()) {
             return ResponseEntity.ok("No appointments found for date: " + date);
         }
@@ -0,0 +1,60 @@
+package com.monikatammineni.fsadproject.service;
+
+import com.monikatammineni.fsadproject.entity.Appointment;
+import com.monikatammineni.fsadproject.repository.AppointmentRepository;
+import com.monikatammineni.fsadproject.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentServiceTests {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private AppointmentService appointmentService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(appointmentService, "responseMapper", new AppointmentResponseMapper(userRepository));
+    }
+
+    @Test
+    void getAllAppointmentsResolvesNamesWithOneQuery() {
+        for (int rows : new int[]{1, 50, 2000}) {
+            reset(appointmentRepository, userRepository);
+            List<Appointment> appointments = new ArrayList<>();
+            for (int i = 0; i < rows; i++) {
+                Appointment appointment = new Appointment();
+                appointment.setAppointmentId(i);
+                appointment.setPatientId(1000 + i);
+                appointment.setDoctorId(i % 7);
+                appointment.setCreatedByUserId(99);
+                appointments.add(appointment);
+            }
+            when(appointmentRepository.findAll()).thenReturn(appointments);
+            when(userRepository.findByIdIn(anyCollection())).thenReturn(List.of());
+
+            appointmentService.getAllAppointments();
+
+            verify(userRepository, times(1)).findByIdIn(anyCollection());
+            verify(userRepository, never()).findById(anyInt());
+        }
+    }
+}
@@ -3,16 +3,24 @@ package com.monikatammineni.fsadproject.service;
 import com.monikatammineni.fsadproject.entity.Files;
 import com.monikatammineni.fsadproject.entity.RegisterRequest;
 import com.monikatammineni.fsadproject.entity.User;
+import com.monikatammineni.fsadproject.entity.UserName;
+import com.monikatammineni.fsadproject.entity.UserPageResponse;
+import com.monikatammineni.fsadproject.entity.UserSummary;
+import com.monikatammineni.fsadproject.jwt.AuthenticatedUser;
 import com.monikatammineni.fsadproject.jwt.TokenHelper;
 import com.monikatammineni.fsadproject.repository.FileRepository;
 import com.monikatammineni.fsadproject.repository.UserRepository;
-import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Set;
 
 
 @Service
@@ -27,26 +35,40 @@ public class DataService {
     @Autowired
     private TokenHelper tokenHelper;
 
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+
 
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final Set<String> SEARCHABLE_COLUMNS = Set.of("firstName", "lastName", "email", "gender", "mobileNumber");
+    private static final Set<String> SORTABLE_COLUMNS = Set.of("id", "firstName", "lastName", "email", "gender",
+            "mobileNumber", "dateOfBirth", "status");
 
     //logger
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(DataService.class);
 
-    public ResponseEntity<?> getAllPatients(String token) {
-
-        Claims claims = tokenHelper.getClaims(token);
-        if (claims != null) {
-            List<User> patientList = userRepository.findByAccountType(RegisterRequest.AccountType.PATIENT.toString());
-            return ResponseEntity.ok(patientList);
+    public ResponseEntity<?> getAllPatients(String token, int page, int size, String query, String field,
+                                            String sort, String direction) {
+
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal != null) {
+            String patientType = RegisterRequest.AccountType.PATIENT.toString();
+            PageRequest pageRequest = pageRequest(page, size, sort, direction);
+            Slice<UserSummary> patientList = isBlank(query)
+                    ? userRepository.findSummariesByAccountType(patientType, pageRequest)
+                    : userRepository.searchSummaries(patientType, searchField(field), likePattern(query), pageRequest);
+            return ResponseEntity.ok(toPage(patientList));
         } else {
             return ResponseEntity.status(401).body("Invalid or expired token.");
         }
     }
 
     public ResponseEntity<?> getPatientFiles(String token) {
-        Claims claims = tokenHelper.getClaims(token);
-        if (claims != null) {
-            int userId = claims.get("id", Integer.class);
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal != null) {
+            int userId = principal.id();
             List<Files> files = fileRepository.findByUserId(userId);
             if (files.isEmpty()) {
                 return ResponseEntity.status(404).body("No files found for the user.");
@@ -60,8 +82,8 @@ public class DataService {
 
 
     public ResponseEntity<?> getPatientFileDetails(String token, int patientUserId) {
-        Claims claims = tokenHelper.getClaims(token);
-        if (claims != null) {
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal != null) {
             List<Files> files = fileRepository.findByUserId(patientUserId);
             log.info("Files for the patient {}:{}", patientUserId, files.toString());
             if (files.isEmpty()) {
@@ -75,27 +97,45 @@ public class DataService {
     }
 
     public User getUser(String token) {
-        Claims claims = tokenHelper.getClaims(token);
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
         int id;
-        if (claims != null) {
-            id = claims.get("id", Integer.class);
+        if (principal != null) {
+            id = principal.id();
             log.info("User ID from token at Get User Info: " +id);
-            return userRepository.findById(id);
+            return userProfileCache.get(id);
         } else {
             System.out.println("Failed to parse token.");
             return null;
         }
     }
 
-    public ResponseEntity<?> getAllUsers(String token) {
+    // Full record for one user, loaded when a list row is opened for editing
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR')")
+    public ResponseEntity<?> getUserDetails(String token, int userId) {
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
+        }
+        User user = userProfileCache.get(userId);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found.");
+        }
+        return ResponseEntity.ok(user);
+    }
+
+    public ResponseEntity<?> getAllUsers(String token, int page, int size, String query, String field,
+                                         String sort, String direction) {
         try {
-            Claims claims = tokenHelper.getClaims(token);
-            if (claims == null) {
+            AuthenticatedUser principal = tokenHelper.authenticate(token);
+            if (principal == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
             }
 
-            List<User> allUsers = (List<User>) userRepository.findAll();
-            return ResponseEntity.ok(allUsers);
+            PageRequest pageRequest = pageRequest(page, size, sort, direction);
+            Slice<UserSummary> allUsers = isBlank(query)
+                    ? userRepository.findSummariesBy(pageRequest)
+                    : userRepository.searchSummaries(null, searchField(field), likePattern(query), pageRequest);
+            return ResponseEntity.ok(toPage(allUsers));
 
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to fetch users: " + e.getMessage());
@@ -103,11 +143,14 @@ public class DataService {
     }
 
     public ResponseEntity<?> deleteUser(String token, int userId) {
-        Claims claims = tokenHelper.getClaims(token);
-        if (claims != null) {
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal != null) {
             User user = userRepository.findById(userId);
             if (user != null) {
                 userRepository.delete(user);
+                tokenHelper.revokeAllTokens(userId);
+                userProfileCache.invalidate(userId);
+                userProfileCache.invalidateEmail(user.getEmail());
                 log.info("User with ID {} has been deleted.", userId);
                 return ResponseEntity.ok("User deleted successfully.");
             } else {
@@ -119,28 +162,45 @@ public class DataService {
     }
 
     public ResponseEntity<?> getAllDoctorsList(String token) {
-        Claims claims = tokenHelper.getClaims(token);
-        if (claims != null) {
-            List<User> doctorList = userRepository.findByAccountType(RegisterRequest.AccountType.DOCTOR.toString());
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal != null) {
+            // Only id and names are selected, and the list is served from memory until a user changes
+            List<UserName> doctorList = userProfileCache.doctors();
             if (doctorList.isEmpty()) {
                 return ResponseEntity.status(404).body("No doctors found.");
             } else {
-                //limit the response to doctors with only id, firstName and lastName.
-                doctorList.forEach(doctor -> {
-                    doctor.setEmail(null);
-                    doctor.setMobileNumber(null);
-                    doctor.setAddress(null);
-                    doctor.setDateOfBirth(null);
-                    doctor.setGender(null);
-                    doctor.setStatus(false);
-                    doctor.setCreatedOn(null);
-                    doctor.setAccountType(null);
-                });
                 return ResponseEntity.ok(doctorList);
             }
         } else {
             return ResponseEntity.status(401).body("Invalid or expired token.");
         }
     }
-}
 
+    private UserPageResponse toPage(Slice<UserSummary> slice) {
+        return new UserPageResponse(slice.getContent(), slice.getNumber(), slice.hasNext());
+    }
+
+    // Sorted on the requested column with id as the tie-breaker, so consecutive pages neither skip nor repeat users
+    private PageRequest pageRequest(int page, int size, String sort, String direction) {
+        Sort.Direction sortDirection = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort order = Sort.by(sortDirection, "id");
+        if (sort != null && SORTABLE_COLUMNS.contains(sort) && !"id".equals(sort)) {
+            order = Sort.by(sortDirection, sort).and(Sort.by("id"));
+        }
+        return PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, MAX_PAGE_SIZE)), order);
+    }
+
+    private String searchField(String field) {
+        return field != null && SEARCHABLE_COLUMNS.contains(field) ? field : "firstName";
+    }
+
+    // Case-insensitive "contains" match; LIKE wildcards typed by the user are matched literally
+    private String likePattern(String query) {
+        String escaped = query.trim().toLowerCase().replace("!", "!!").replace("%", "!%").replace("_", "!_");
+        return "%" + escaped + "%";
+    }
+
+    private boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,109 @@
+package com.monikatammineni.fsadproject.service;
+
+import com.monikatammineni.fsadproject.cache.CacheRegistry;
+import com.monikatammineni.fsadproject.cache.LruCache;
+import com.monikatammineni.fsadproject.entity.Appointment;
+import com.monikatammineni.fsadproject.entity.AppointmentResponse;
+import com.monikatammineni.fsadproject.entity.RegisterRequest;
+import com.monikatammineni.fsadproject.entity.User;
+import com.monikatammineni.fsadproject.repository.AppointmentRepository;
+import com.monikatammineni.fsadproject.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Fully assembled per-doctor daily schedules ("day sheets"), with names already resolved.
+ * <p>
+ * Sheets for the next {@code daysheet.precompute-days} days are built ahead of time by a scheduled job; other dates
+ * are built on first read. Every appointment mutation rebuilds the affected sheets in place, and renaming a user drops
+ * them all, so readers never see a stale sheet and the morning rush is served from memory. Rebuilds go through {@link LruCache#reload}, so when two
+ * overlap, the older result is discarded instead of overwriting the newer one.
+ */
+@Service
+public class DaySheetCache {
+
+    private final AppointmentRepository appointmentRepository;
+    private final UserRepository userRepository;
+    private final RecurrenceService recurrenceService;
+    private final AppointmentResponseMapper responseMapper;
+    private final LruCache<DaySheetKey, List<AppointmentResponse>> sheets;
+
+    @Value("${daysheet.precompute-days:3}")
+    private int precomputeDays;
+
+    //logger
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(DaySheetCache.class);
+
+    public DaySheetCache(AppointmentRepository appointmentRepository, UserRepository userRepository,
+                         RecurrenceService recurrenceService, AppointmentResponseMapper responseMapper,
+                         CacheRegistry cacheRegistry, @Value("${daysheet.max-entries:5000}") int maxEntries) {
+        this.appointmentRepository = appointmentRepository;
+        this.userRepository = userRepository;
+        this.recurrenceService = recurrenceService;
+        this.responseMapper = responseMapper;
+        this.sheets = cacheRegistry.create("daySheets", maxEntries);
+    }
+
+    public List<AppointmentResponse> get(int doctorId, LocalDate date) {
+        return sheets.get(new DaySheetKey(doctorId, date), this::build);
+    }
+
+    // Rebuilds a sheet after one of its appointments changed. A sheet that isn't cached isn't built here, but it is
+    // still invalidated, so a read building it from the pre-change rows at this moment doesn't get to store it
+    public void refresh(int doctorId, LocalDate date) {
+        if (date == null) {
+            return;
+        }
+        DaySheetKey key = new DaySheetKey(doctorId, date);
+        if (sheets.contains(key)) {
+            sheets.reload(key, this::build);
+        } else {
+            sheets.invalidate(key);
+        }
+    }
+
+    // A recurring series touches many dates; drop the doctor's sheets and let them rebuild on demand
+    public void invalidateDoctor(int doctorId) {
+        sheets.invalidateIf(key -> key.doctorId() == doctorId);
+    }
+
+    // Sheets carry resolved names, and a renamed user may be the doctor or a patient on any of them
+    public void invalidateAll() {
+        sheets.invalidateAll();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${daysheet.precompute-cron:0 0 5 * * *}")
+    public void precompute() {
+        long start = System.currentTimeMillis();
+        List<User> doctors = userRepository.findByAccountType(RegisterRequest.AccountType.DOCTOR.toString());
+        LocalDate today = LocalDate.now();
+        int built = 0;
+        for (User doctor : doctors) {
+            for (int day = 0; day < precomputeDays; day++) {
+                sheets.reload(new DaySheetKey(doctor.getId(), today.plusDays(day)), this::build);
+                built++;
+            }
+        }
+        log.info("Precomputed {} day sheets in {} ms", built, System.currentTimeMillis() - start);
+    }
+
+    private List<AppointmentResponse> build(DaySheetKey key) {
+        List<Appointment> appointments = new ArrayList<>(appointmentRepository
+                .findByDoctorIdAndAppointmentDateBetweenOrderByAppointmentDateAscAppointmentTimeAsc(key.doctorId(), key.date(), key.date()));
+        appointments.addAll(recurrenceService.expand(key.date(), key.date(), key.doctorId(), null));
+        appointments.sort(Comparator.comparing(Appointment::getAppointmentTime, Comparator.nullsLast(Comparator.naturalOrder())));
+        return List.copyOf(responseMapper.toAppointmentResponses(appointments));
+    }
+
+    private record DaySheetKey(int doctorId, LocalDate date) {
+    }
+}
@@ -5,8 +5,12 @@ import com.monikatammineni.fsadproject.entity.LoginRequest;
 import com.monikatammineni.fsadproject.entity.LoginResponse;
 import com.monikatammineni.fsadproject.entity.RegisterRequest;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface LoginService {
-    public LoginResponse login(LoginRequest loginRequest);
+    public CompletableFuture<LoginResponse> login(LoginRequest loginRequest);
+
+    public LoginResponse refreshToken(String refreshToken);
 
     public Object isValidToken(String token);
 
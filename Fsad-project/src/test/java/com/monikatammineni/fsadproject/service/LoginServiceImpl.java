@@ -2,15 +2,24 @@ package com.monikatammineni.fsadproject.service;
 
 
 import com.monikatammineni.fsadproject.entity.*;
+import com.monikatammineni.fsadproject.jwt.AuthenticatedUser;
 import com.monikatammineni.fsadproject.jwt.TokenHelper;
 import com.monikatammineni.fsadproject.repository.CredentialRepository;
 import com.monikatammineni.fsadproject.repository.UserRepository;
 import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 public class LoginServiceImpl implements LoginService {
@@ -28,56 +37,101 @@ public class LoginServiceImpl implements LoginService {
     //logger
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(LoginServiceImpl.class);
 
-    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private PasswordHashingService passwordHashingService;
 
-    @Override
-    public LoginResponse login(LoginRequest loginRequest) {
-        LoginResponse loginResponse = new LoginResponse();
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
-        Credential credential = credentialRepository.findByEmail(loginRequest.getEmail());
+    @Autowired
+    private UserProfileCache userProfileCache;
 
-        log.info(passwordEncoder.encode(loginRequest.getPassword()));
-        if (credential == null) {
-            loginResponse.setValidated(false);
-            loginResponse.setMessage("Invalid email or password");
-            return loginResponse;
-        }
+    @Autowired
+    private DaySheetCache daySheetCache;
 
-        // Check password using passwordEncoder
-        boolean passwordMatches = passwordEncoder.matches(loginRequest.getPassword(), credential.getPassword());
+    private final ExecutorService writeBackExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
-        if (!passwordMatches) {
-            loginResponse.setValidated(false);
-            loginResponse.setMessage("Invalid email or password");
-            return loginResponse;
+    @Override
+    public CompletableFuture<LoginResponse> login(LoginRequest loginRequest) {
+        // Hash, status and profile in one indexed lookup
+        LoginAccount account = credentialRepository.findLoginAccountByEmail(loginRequest.getEmail());
+
+        if (account == null) {
+            // Spend the same BCrypt time as a real check so the response time doesn't reveal unknown emails
+            return passwordHashingService.matchesAsync(loginRequest.getPassword(), passwordHashingService.getDummyHash())
+                    .thenApply(ignored -> invalidLogin("Invalid email or password"));
         }
 
-        // Password matches, continue login
-        User user = userRepository.findById(credential.getUserId());
-        if(user.isStatus() == false){
-            loginResponse.setValidated(false);
-            loginResponse.setMessage("User is inactive. Please contact support.");
-            return loginResponse;
+        // Check password on the BCrypt pool, the request thread is released until it completes
+        return passwordHashingService.matchesAsync(loginRequest.getPassword(), account.passwordHash())
+                .thenApply(passwordMatches -> {
+                    if (!passwordMatches) {
+                        return invalidLogin("Invalid email or password");
+                    }
+                    if (!account.status()) {
+                        return invalidLogin("User is inactive. Please contact support.");
+                    }
+                    if (passwordHashingService.needsRehash(account.passwordHash())) {
+                        rehash(account.userId(), loginRequest.getPassword());
+                    }
+                    return loginResponse(account, tokenHelper.createRefreshToken(account.userId()));
+                });
+    }
+
+    // Exchanges a refresh token for a new access token; no password check, so no BCrypt work
+    @Override
+    public LoginResponse refreshToken(String refreshToken) {
+        Claims claims = tokenHelper.getRefreshClaims(refreshToken);
+        if (claims == null) {
+            return invalidLogin("Invalid or expired refresh token");
         }
-        else{
-            loginResponse.setToken(tokenHelper.createToken(user.getId(), user.getMobileNumber(), String.valueOf(user.getAccountType())));
-            loginResponse.setValidated(true);
-            loginResponse.setAccountType(String.valueOf(user.getAccountType()));
-            loginResponse.setMobileNumber(user.getMobileNumber());
-            loginResponse.setFirstName(user.getFirstName());
-            loginResponse.setLastName(user.getLastName());
-            loginResponse.setMessage("Login successful");
+        LoginAccount account = credentialRepository.findLoginAccountByUserId(claims.get("id", Integer.class));
+        if (account == null || !account.status()) {
+            return invalidLogin("User is inactive. Please contact support.");
         }
+        return loginResponse(account, refreshToken);
+    }
+
+    private LoginResponse loginResponse(LoginAccount account, String refreshToken) {
+        LoginResponse loginResponse = new LoginResponse();
+        loginResponse.setToken(tokenHelper.createToken(account.userId(), account.mobileNumber(), String.valueOf(account.accountType())));
+        loginResponse.setRefreshToken(refreshToken);
+        loginResponse.setValidated(true);
+        loginResponse.setAccountType(String.valueOf(account.accountType()));
+        loginResponse.setMobileNumber(account.mobileNumber());
+        loginResponse.setFirstName(account.firstName());
+        loginResponse.setLastName(account.lastName());
+        loginResponse.setMessage("Login successful");
         return loginResponse;
     }
 
+    private LoginResponse invalidLogin(String message) {
+        LoginResponse loginResponse = new LoginResponse();
+        loginResponse.setValidated(false);
+        loginResponse.setMessage(message);
+        return loginResponse;
+    }
+
+    // Stored hash predates the configured cost; upgrade it in the background, a busy pool just retries next login.
+    // The update runs on a virtual thread so a BCrypt slot isn't held for the database round-trip
+    private void rehash(int userId, String rawPassword) {
+        passwordHashingService.encodeAsync(rawPassword).thenAcceptAsync(hash -> {
+            credentialRepository.updatePassword(userId, hash);
+            log.info("Upgraded password hash cost for user {}", userId);
+        }, writeBackExecutor).exceptionally(e -> {
+            log.debug("Password rehash skipped for user {}: {}", userId, e.getMessage());
+            return null;
+        });
+    }
 
 
+
+    // Answered from the verified claims and the in-memory revocation list, never from the database
     @Override
     public Object isValidToken(String token) {
         try{
-            Claims claims = tokenHelper.getClaims(token);
-            if(claims != null)
+            AuthenticatedUser principal = tokenHelper.authenticate(token);
+            if(principal != null)
             {
                 return "Valid Token";
             }
@@ -96,7 +150,7 @@ public class LoginServiceImpl implements LoginService {
         String email = registerRequest.getEmail();
 
         // ✅ 1. Check if user already exists by email
-        if (userRepository.findByEmail(email) != null) {
+        if (userProfileCache.getByEmail(email) != null) {
             response.setMessage("Email already exists");
             response.setRegistered(false);
             log.info("Email already exists: " + email);
@@ -117,15 +171,30 @@ public class LoginServiceImpl implements LoginService {
         user.setGender(String.valueOf(registerRequest.getGender()));
         user.setStatus(true);
 
-        credential.setUserId(userRepository.save(user).getId());
         credential.setEmail(email);
 //        credential.setPassword(registerRequest.getPassword());
-        credential.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
+        // Hash on the BCrypt pool before opening the transaction so no connection is held during it; a full pool
+        // throws RejectedExecutionException, which the controller answers with 503
+        credential.setPassword(passwordHashingService.encode(registerRequest.getPassword()));
 
-        credentialRepository.save(credential);
+        // User and credential are written together or not at all; the unique email indexes catch concurrent duplicates
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                credential.setUserId(userRepository.save(user).getId());
+                credentialRepository.save(credential);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another registration for the same email committed between the email check and ours
+            response.setMessage("Email already exists");
+            response.setRegistered(false);
+            log.info("Email already exists: " + email);
+            return response;
+        }
+        userProfileCache.invalidate(user.getId());
 
         response.setMessage("User registered successfully");
         response.setToken(tokenHelper.createToken(user.getId(), user.getMobileNumber(), String.valueOf(user.getAccountType())));
+        response.setRefreshToken(tokenHelper.createRefreshToken(user.getId()));
         response.setRegistered(true);
         response.setId(credential.getUserId());
 
@@ -134,8 +203,8 @@ public class LoginServiceImpl implements LoginService {
 
     @Override
     public Object editUser(String token, Object userObj) {
-        Claims claims = tokenHelper.getClaims(token);
-        if (claims == null) {
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
             return "Invalid or expired token.";
         }
 
@@ -149,6 +218,10 @@ public class LoginServiceImpl implements LoginService {
                 return "User not found.";
             }
 
+            String previousEmail = existingUser.getEmail();
+            boolean renamed = !Objects.equals(existingUser.getFirstName(), updatedUser.getFirstName())
+                    || !Objects.equals(existingUser.getLastName(), updatedUser.getLastName());
+
             // Update fields
             existingUser.setFirstName(updatedUser.getFirstName());
             existingUser.setLastName(updatedUser.getLastName());
@@ -158,9 +231,18 @@ public class LoginServiceImpl implements LoginService {
             existingUser.setAccountType(updatedUser.getAccountType());
             existingUser.setAddress(updatedUser.getAddress());
             existingUser.setGender(updatedUser.getGender());
+            boolean deactivated = existingUser.isStatus() && !updatedUser.isStatus();
             existingUser.setStatus(updatedUser.isStatus());
 
             userRepository.save(existingUser);
+            userProfileCache.invalidate(existingUser.getId());
+            userProfileCache.invalidateEmail(previousEmail);
+            if (renamed) {
+                daySheetCache.invalidateAll();
+            }
+            if (deactivated) {
+                tokenHelper.revokeAllTokens(existingUser.getId());
+            }
 
             return "User updated successfully.";
         } catch (Exception e) {
@@ -170,23 +252,28 @@ public class LoginServiceImpl implements LoginService {
 
     @Override
     public ResponseEntity<?> changePassword(String token, String oldPassword, String newPassword) {
-        Claims claims = tokenHelper.getClaims(token);
-        if (claims == null) {
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
             return ResponseEntity.status(401).body("Invalid or expired token.");
         }
 
-        int userId = claims.get("id", Integer.class);
+        int userId = principal.id();
         Credential credential = credentialRepository.findByUserId(userId);
 
         if (credential == null) {
             return ResponseEntity.status(404).body("User credentials not found.");
         }
 
-        if (!passwordEncoder.matches(oldPassword, credential.getPassword())) {
-            return ResponseEntity.status(400).body("Incorrect old password.");
+        try {
+            if (!passwordHashingService.matches(oldPassword, credential.getPassword())) {
+                return ResponseEntity.status(400).body("Incorrect old password.");
+            }
+            credential.setPassword(passwordHashingService.encode(newPassword));
+        } catch (RejectedExecutionException e) {
+            // BCrypt pool is saturated, shed load the same way login does
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Too many password operations in progress, please retry.");
         }
-
-        credential.setPassword(passwordEncoder.encode(newPassword));
         credentialRepository.save(credential);
 
         return ResponseEntity.ok("Password changed successfully.");
@@ -0,0 +1,82 @@
+package com.monikatammineni.fsadproject.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password-check throughput of the old login path (an extra encode before matches, on the calling thread) against
+ * the bounded BCrypt pool, with 32 concurrent callers standing in for request threads. Rejected logins are counted
+ * separately from completed ones. Run with main() from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(32)
+@Fork(1)
+public class LoginThroughputBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"10"})
+    private int cost;
+
+    private BCryptPasswordEncoder encoder;
+    private PasswordHashingService hashingService;
+    private String storedHash;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        encoder = new BCryptPasswordEncoder(cost);
+        hashingService = new PasswordHashingService(cost, 0, 64);
+        storedHash = encoder.encode(PASSWORD);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        hashingService.shutdown();
+    }
+
+    @Benchmark
+    public boolean encodeThenMatchOnCaller() {
+        encoder.encode(PASSWORD);
+        return encoder.matches(PASSWORD, storedHash);
+    }
+
+    @Benchmark
+    public boolean boundedPool() {
+        try {
+            return hashingService.matchesAsync(PASSWORD, storedHash).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                return false; // shed with a 503 in production
+            }
+            throw e;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LoginThroughputBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,299 @@
+package com.monikatammineni.fsadproject.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ListPartsRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PartListing;
+import com.amazonaws.services.s3.model.PartSummary;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.monikatammineni.fsadproject.entity.Files;
+import com.monikatammineni.fsadproject.entity.PendingUpload;
+import com.monikatammineni.fsadproject.entity.UploadStatus;
+import com.monikatammineni.fsadproject.jwt.AuthenticatedUser;
+import com.monikatammineni.fsadproject.jwt.TokenHelper;
+import com.monikatammineni.fsadproject.repository.FileRepository;
+import com.monikatammineni.fsadproject.repository.PendingUploadRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Chunked, resumable uploads mapped one-to-one onto S3 multipart uploads.
+ * <p>
+ * The client initiates an upload, sends each part as a raw request body that is streamed straight into
+ * {@code uploadPart}, and completes it. S3's own part listing is the record of progress, so a client that lost its
+ * connection asks for the status and re-sends only the missing parts. The {@link Files} row is written only after
+ * S3 has assembled the object; uploads left unfinished for {@code aws.s3.pending-upload-ttl-hours} are aborted.
+ */
+@Service
+@ConditionalOnProperty(name = "storage.backend", havingValue = "s3", matchIfMissing = true)
+public class MultipartUploadService {
+
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024; // S3 minimum for every part but the last
+    private static final int MAX_PARTS = 10_000;
+
+    private final AmazonS3 amazonS3;
+    private final PendingUploadRepository pendingUploadRepository;
+    private final FileRepository fileRepository;
+    private final TokenHelper tokenHelper;
+    private final ObjectMetadataCache objectMetadata;
+
+    @Value("${aws.s3.bucket}")
+    private String bucketName;
+
+    @Value("${aws.s3.upload-part-size:8388608}")
+    private long defaultPartSize;
+
+    @Value("${aws.s3.pending-upload-ttl-hours:24}")
+    private long pendingUploadTtlHours;
+
+    //logger
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(MultipartUploadService.class);
+
+    public MultipartUploadService(AmazonS3 amazonS3, PendingUploadRepository pendingUploadRepository,
+                                  FileRepository fileRepository, TokenHelper tokenHelper,
+                                  ObjectMetadataCache objectMetadata) {
+        this.amazonS3 = amazonS3;
+        this.pendingUploadRepository = pendingUploadRepository;
+        this.fileRepository = fileRepository;
+        this.tokenHelper = tokenHelper;
+        this.objectMetadata = objectMetadata;
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR')")
+    public ResponseEntity<?> initiate(String fileName, String category, int patientUserId, long fileSize,
+                                      String contentType, String token) {
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
+        }
+        if (fileName == null || fileName.isBlank() || fileSize <= 0) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("A file name and a positive file size are required.");
+        }
+
+        long partSize = Math.max(Math.max(defaultPartSize, MIN_PART_SIZE), (fileSize + MAX_PARTS - 1) / MAX_PARTS);
+        String fileCode = patientUserId + "_" + System.currentTimeMillis();
+        ObjectMetadata metadata = new ObjectMetadata();
+        if (contentType != null && !contentType.isBlank()) {
+            metadata.setContentType(contentType);
+        }
+
+        String uploadId = null;
+        try {
+            uploadId = amazonS3.initiateMultipartUpload(
+                    new InitiateMultipartUploadRequest(bucketName, fileCode, metadata)).getUploadId();
+            PendingUpload pending = new PendingUpload(uploadId, fileCode, patientUserId, category, fileName,
+                    contentType, fileSize, partSize, principal.id(), Instant.now(), false);
+            pendingUploadRepository.save(pending);
+            return ResponseEntity.ok(status(pending, List.of()));
+        } catch (Exception e) {
+            log.error("Starting multipart upload {} failed", fileCode, e);
+            if (uploadId != null) {
+                abortQuietly(fileCode, uploadId);
+            }
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error starting upload.");
+        }
+    }
+
+    // Re-sending a part that already arrived replaces it, so retries after a dropped connection are safe
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR')")
+    public ResponseEntity<?> uploadPart(String uploadId, int partNumber, InputStream body, long contentLength, String token) {
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
+        }
+        PendingUpload pending = findOwned(uploadId, principal);
+        if (pending == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Upload not found.");
+        }
+        if (partNumber < 1 || partNumber > partCount(pending)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Part number must be between 1 and " + partCount(pending) + ".");
+        }
+        long expectedSize = partSize(pending, partNumber);
+        if (contentLength != expectedSize) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Part " + partNumber + " must be " + expectedSize + " bytes.");
+        }
+
+        try {
+            amazonS3.uploadPart(new UploadPartRequest()
+                    .withBucketName(bucketName)
+                    .withKey(pending.getFileCode())
+                    .withUploadId(uploadId)
+                    .withPartNumber(partNumber)
+                    .withPartSize(expectedSize)
+                    .withInputStream(body));
+            return ResponseEntity.ok("Part " + partNumber + " uploaded.");
+        } catch (Exception e) {
+            log.warn("Part {} of upload {} failed: {}", partNumber, pending.getFileCode(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error uploading part " + partNumber + ".");
+        }
+    }
+
+    public ResponseEntity<?> getStatus(String uploadId, String token) {
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
+        }
+        PendingUpload pending = findOwned(uploadId, principal);
+        if (pending == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Upload not found.");
+        }
+
+        try {
+            return ResponseEntity.ok(status(pending, listParts(pending)));
+        } catch (Exception e) {
+            log.warn("Reading status of upload {} failed: {}", pending.getFileCode(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error reading upload status.");
+        }
+    }
+
+    public ResponseEntity<?> complete(String uploadId, String token) {
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
+        }
+        PendingUpload pending = findOwned(uploadId, principal);
+        if (pending == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Upload not found.");
+        }
+
+        try {
+            List<PartSummary> parts = listParts(pending);
+            if (parts.size() != partCount(pending)) {
+                // Tell the client what is still missing so it can resume
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(status(pending, parts));
+            }
+
+            List<PartETag> partETags = parts.stream()
+                    .sorted(Comparator.comparingInt(PartSummary::getPartNumber))
+                    .map(part -> new PartETag(part.getPartNumber(), part.getETag()))
+                    .toList();
+            amazonS3.completeMultipartUpload(
+                    new CompleteMultipartUploadRequest(bucketName, pending.getFileCode(), uploadId, partETags));
+            objectMetadata.invalidate(pending.getFileCode());
+
+            // Only now that the object exists, save into SQL
+            Files uploadedFileRecord = new Files();
+            uploadedFileRecord.setFileName(pending.getFileName());
+            uploadedFileRecord.setCategory(pending.getCategory());
+            uploadedFileRecord.setUserId(pending.getUserId());
+            uploadedFileRecord.setFileCode(pending.getFileCode());
+            uploadedFileRecord.setUploadedByUserId(pending.getUploadedByUserId());
+            try {
+                fileRepository.save(uploadedFileRecord);
+            } catch (RuntimeException e) {
+                amazonS3.deleteObject(bucketName, pending.getFileCode()); // no row would ever point at it
+                throw e;
+            }
+            pendingUploadRepository.delete(pending);
+
+            return ResponseEntity.ok("File uploaded successfully: " + pending.getFileCode());
+        } catch (Exception e) {
+            log.error("Completing upload {} failed", pending.getFileCode(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error completing upload.");
+        }
+    }
+
+    public ResponseEntity<?> abort(String uploadId, String token) {
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
+        }
+        PendingUpload pending = findOwned(uploadId, principal);
+        if (pending == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Upload not found.");
+        }
+
+        abortQuietly(pending.getFileCode(), uploadId);
+        pendingUploadRepository.delete(pending);
+        return ResponseEntity.ok("Upload aborted.");
+    }
+
+    // Parts of abandoned uploads are billed as storage until the upload is aborted
+    @Scheduled(fixedDelayString = "${aws.s3.pending-upload-sweep-ms:3600000}")
+    public void abortStale() {
+        List<PendingUpload> stale = pendingUploadRepository.findByCreatedAtBefore(
+                Instant.now().minus(Duration.ofHours(pendingUploadTtlHours)));
+        for (PendingUpload pending : stale) {
+            if (pending.isDirect()) {
+                deleteQuietly(PresignedUrlService.stagingKey(pending.getUploadId())); // may have been PUT but never confirmed
+            } else {
+                abortQuietly(pending.getFileCode(), pending.getUploadId());
+            }
+            pendingUploadRepository.delete(pending);
+        }
+        if (!stale.isEmpty()) {
+            log.info("Aborted {} stale pending uploads", stale.size());
+        }
+    }
+
+    // Someone else's upload is reported as missing rather than forbidden
+    private PendingUpload findOwned(String uploadId, AuthenticatedUser principal) {
+        if (uploadId == null) {
+            return null;
+        }
+        PendingUpload pending = pendingUploadRepository.findById(uploadId).orElse(null);
+        return pending != null && !pending.isDirect() && pending.getUploadedByUserId() == principal.id() ? pending : null;
+    }
+
+    private List<PartSummary> listParts(PendingUpload pending) {
+        List<PartSummary> parts = new ArrayList<>();
+        ListPartsRequest request = new ListPartsRequest(bucketName, pending.getFileCode(), pending.getUploadId());
+        PartListing listing;
+        do {
+            listing = amazonS3.listParts(request);
+            parts.addAll(listing.getParts());
+            request.setPartNumberMarker(listing.getNextPartNumberMarker());
+        } while (listing.isTruncated());
+        return parts;
+    }
+
+    private void abortQuietly(String fileCode, String uploadId) {
+        try {
+            amazonS3.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, fileCode, uploadId));
+        } catch (Exception e) {
+            log.warn("Could not abort multipart upload {}: {}", fileCode, e.getMessage());
+        }
+    }
+
+    private void deleteQuietly(String fileCode) {
+        try {
+            amazonS3.deleteObject(bucketName, fileCode);
+        } catch (Exception e) {
+            log.warn("Could not delete unconfirmed object {}: {}", fileCode, e.getMessage());
+        }
+    }
+
+    private static UploadStatus status(PendingUpload pending, List<PartSummary> parts) {
+        List<Integer> uploadedParts = parts.stream().map(PartSummary::getPartNumber).sorted().toList();
+        long uploadedBytes = parts.stream().mapToLong(PartSummary::getSize).sum();
+        return new UploadStatus(pending.getUploadId(), pending.getFileCode(), pending.getTotalSize(),
+                pending.getPartSize(), partCount(pending), uploadedParts, uploadedBytes);
+    }
+
+    private static int partCount(PendingUpload pending) {
+        return (int) ((pending.getTotalSize() + pending.getPartSize() - 1) / pending.getPartSize());
+    }
+
+    // Every part is partSize bytes except the last, which carries the remainder
+    private static long partSize(PendingUpload pending, int partNumber) {
+        return Math.min(pending.getPartSize(), pending.getTotalSize() - (partNumber - 1) * pending.getPartSize());
+    }
+}
@@ -0,0 +1,45 @@
+package com.monikatammineni.fsadproject.service;
+
+import com.monikatammineni.fsadproject.cache.CacheRegistry;
+import com.monikatammineni.fsadproject.cache.LruCache;
+import com.monikatammineni.fsadproject.storage.BlobMetadata;
+import com.monikatammineni.fsadproject.storage.BlobStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Read-through cache of stored object metadata by file code, so conditional and ranged downloads can be answered
+ * without a round trip to storage. A presigned PUT can write an object after its key was first looked up, so every
+ * path that finishes writing an object must call {@link #invalidate(String)}; reads are additionally pinned to the
+ * cached ETag, and a mismatch found there drops the entry too.
+ */
+@Service
+public class ObjectMetadataCache {
+
+    private final BlobStore blobStore;
+    private final LruCache<String, BlobMetadata> entries;
+
+    public ObjectMetadataCache(BlobStore blobStore, CacheRegistry cacheRegistry,
+                               @Value("${aws.s3.metadata-cache-entries:10000}") int maxEntries) {
+        this.blobStore = blobStore;
+        this.entries = cacheRegistry.create("objectMetadata", maxEntries);
+    }
+
+    // Metadata of the object, or null when nothing is stored under the file code
+    public BlobMetadata get(String fileCode) {
+        return entries.get(fileCode, key -> {
+            try {
+                return blobStore.stat(key);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public void invalidate(String fileCode) {
+        entries.invalidate(fileCode);
+    }
+}
@@ -0,0 +1,114 @@
+package com.monikatammineni.fsadproject.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BCrypt hashing on a dedicated, bounded pool so a login burst cannot pin every request thread.
+ * <p>
+ * Every hash, including those for registration and password changes, runs here. At most
+ * {@code security.bcrypt.threads} hashes run at once and {@code security.bcrypt.queue-size} more may wait;
+ * anything beyond that fails immediately with {@link RejectedExecutionException} and the caller answers 503.
+ * Hashes are produced at {@code security.bcrypt.cost}; stored hashes with a lower cost are reported by
+ * {@link #needsRehash(String)} so they can be upgraded on the next successful login.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final BCryptPasswordEncoder encoder;
+    private final String dummyHash;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong rejected = new AtomicLong();
+
+    //logger
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(PasswordHashingService.class);
+
+    public PasswordHashingService(@Value("${security.bcrypt.cost:10}") int cost,
+                                  @Value("${security.bcrypt.threads:0}") int threads,
+                                  @Value("${security.bcrypt.queue-size:64}") int queueSize) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.encoder = new BCryptPasswordEncoder(cost);
+        this.dummyHash = encoder.encode(UUID.randomUUID().toString());
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public CompletableFuture<Boolean> matchesAsync(String rawPassword, String encodedPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> encoder.matches(rawPassword, encodedPassword), executor);
+        } catch (RejectedExecutionException e) {
+            return rejected(e);
+        }
+    }
+
+    public CompletableFuture<String> encodeAsync(String rawPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> encoder.encode(rawPassword), executor);
+        } catch (RejectedExecutionException e) {
+            return rejected(e);
+        }
+    }
+
+    // Blocking forms for register and password change: the request thread waits, so it can do the database write
+    // itself afterwards, but the hash still runs on the bounded pool. Throws RejectedExecutionException when it is full
+    public String encode(String rawPassword) {
+        return await(encodeAsync(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return await(matchesAsync(rawPassword, encodedPassword));
+    }
+
+    // A hash at the configured cost that no password matches; checking against it costs as much as a real login
+    public String getDummyHash() {
+        return dummyHash;
+    }
+
+    public boolean needsRehash(String encodedPassword) {
+        return encodedPassword != null && encoder.upgradeEncoding(encodedPassword);
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> rejected(RejectedExecutionException e) {
+        if (rejected.incrementAndGet() % 100 == 1) {
+            log.warn("BCrypt pool saturated, {} requests rejected so far", rejected.get());
+        }
+        return CompletableFuture.failedFuture(e);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,197 @@
+package com.monikatammineni.fsadproject.service;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.HttpMethod;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.ResponseHeaderOverrides;
+import com.monikatammineni.fsadproject.entity.Files;
+import com.monikatammineni.fsadproject.entity.PendingUpload;
+import com.monikatammineni.fsadproject.entity.PresignedUrlResponse;
+import com.monikatammineni.fsadproject.jwt.AuthenticatedUser;
+import com.monikatammineni.fsadproject.jwt.TokenHelper;
+import com.monikatammineni.fsadproject.repository.FileRepository;
+import com.monikatammineni.fsadproject.repository.PendingUploadRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Short-lived presigned S3 URLs, so file bytes move between the browser and the bucket without passing through
+ * this service.
+ * <p>
+ * An upload is recorded as a direct {@link PendingUpload} when its PUT URL is handed out and becomes a {@link Files}
+ * row only when the client confirms it and S3 reports an object of the declared size, so the files table never
+ * points at an object that doesn't exist. The PUT URL is signed for a one-off staging key, and confirming copies the
+ * staged object to its file code, which no URL is ever signed for; a PUT replayed after the confirm only rewrites the
+ * staging object and can't change a stored file. Unconfirmed uploads are cleaned up by
+ * {@link MultipartUploadService#abortStale()}; a lifecycle rule expiring {@value #STAGING_PREFIX} objects after a day
+ * catches replays. The bucket needs a CORS rule allowing PUT and GET from the frontend.
+ */
+@Service
+@ConditionalOnProperty(name = "storage.backend", havingValue = "s3", matchIfMissing = true)
+public class PresignedUrlService {
+
+    static final String STAGING_PREFIX = "staging/";
+
+    private final AmazonS3 amazonS3;
+    private final PendingUploadRepository pendingUploadRepository;
+    private final FileRepository fileRepository;
+    private final TokenHelper tokenHelper;
+    private final ObjectMetadataCache objectMetadata;
+
+    @Value("${aws.s3.bucket}")
+    private String bucketName;
+
+    @Value("${aws.s3.presigned-url-minutes:15}")
+    private long urlMinutes;
+
+    //logger
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(PresignedUrlService.class);
+
+    public PresignedUrlService(AmazonS3 amazonS3, PendingUploadRepository pendingUploadRepository,
+                               FileRepository fileRepository, TokenHelper tokenHelper,
+                               ObjectMetadataCache objectMetadata) {
+        this.amazonS3 = amazonS3;
+        this.pendingUploadRepository = pendingUploadRepository;
+        this.fileRepository = fileRepository;
+        this.tokenHelper = tokenHelper;
+        this.objectMetadata = objectMetadata;
+    }
+
+    // The client must send the same Content-Type on the PUT, since it is part of the signature
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR')")
+    public ResponseEntity<?> presignUpload(String fileName, String category, int patientUserId, long fileSize,
+                                           String contentType, String token) {
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
+        }
+        if (fileName == null || fileName.isBlank() || fileSize <= 0) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("A file name and a positive file size are required.");
+        }
+
+        try {
+            String fileCode = patientUserId + "_" + System.currentTimeMillis();
+            Instant expiresAt = Instant.now().plus(Duration.ofMinutes(urlMinutes));
+            String uploadId = UUID.randomUUID().toString();
+            GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(bucketName, stagingKey(uploadId), HttpMethod.PUT)
+                    .withExpiration(Date.from(expiresAt));
+            if (contentType != null && !contentType.isBlank()) {
+                request.setContentType(contentType);
+            }
+            URL url = amazonS3.generatePresignedUrl(request);
+
+            pendingUploadRepository.save(new PendingUpload(uploadId, fileCode, patientUserId, category, fileName,
+                    contentType, fileSize, fileSize, principal.id(), Instant.now(), true));
+            return ResponseEntity.ok(new PresignedUrlResponse(uploadId, fileCode, url.toString(), expiresAt));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error creating upload URL: " + e.getMessage());
+        }
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR')")
+    public ResponseEntity<?> confirmUpload(String uploadId, String token) {
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
+        }
+        PendingUpload pending = uploadId == null ? null : pendingUploadRepository.findById(uploadId).orElse(null);
+        if (pending == null || !pending.isDirect() || pending.getUploadedByUserId() != principal.id()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Upload not found.");
+        }
+
+        String stagingKey = stagingKey(pending.getUploadId());
+        try {
+            ObjectMetadata metadata;
+            try {
+                metadata = amazonS3.getObjectMetadata(bucketName, stagingKey);
+            } catch (AmazonServiceException e) {
+                if (e.getStatusCode() == HttpStatus.NOT_FOUND.value()) {
+                    return ResponseEntity.status(HttpStatus.CONFLICT).body("File has not been uploaded yet.");
+                }
+                throw e;
+            }
+            if (metadata.getContentLength() != pending.getTotalSize()) {
+                // A presigned PUT can't cap the size, so an object that doesn't match what was declared is dropped
+                amazonS3.deleteObject(bucketName, stagingKey);
+                pendingUploadRepository.delete(pending);
+                log.warn("Upload {} was {} bytes, expected {}", pending.getFileCode(), metadata.getContentLength(), pending.getTotalSize());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Uploaded file size does not match.");
+            }
+
+            // Copy exactly the object whose size was checked; a PUT racing with the confirm fails the ETag match
+            if (amazonS3.copyObject(new CopyObjectRequest(bucketName, stagingKey, bucketName, pending.getFileCode())
+                    .withMatchingETagConstraint(metadata.getETag())) == null) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body("File changed while confirming, please confirm again.");
+            }
+            amazonS3.deleteObject(bucketName, stagingKey);
+            // Drop anything looked up for this key before the confirmed object was in place
+            objectMetadata.invalidate(pending.getFileCode());
+
+            Files uploadedFileRecord = new Files();
+            uploadedFileRecord.setFileName(pending.getFileName());
+            uploadedFileRecord.setCategory(pending.getCategory());
+            uploadedFileRecord.setUserId(pending.getUserId());
+            uploadedFileRecord.setFileCode(pending.getFileCode());
+            uploadedFileRecord.setUploadedByUserId(pending.getUploadedByUserId());
+            fileRepository.save(uploadedFileRecord);
+            pendingUploadRepository.delete(pending);
+
+            return ResponseEntity.ok("File uploaded successfully: " + pending.getFileCode());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error confirming upload: " + e.getMessage());
+        }
+    }
+
+    // Where the browser PUTs a direct upload before it is confirmed
+    static String stagingKey(String uploadId) {
+        return STAGING_PREFIX + uploadId;
+    }
+
+    public ResponseEntity<?> presignDownload(int fileId, String token, String mode) {
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
+        }
+
+        try {
+            Files file = fileRepository.findByFileId(fileId);
+            if (file == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("File not found.");
+            }
+            String dispositionType = "attachment".equalsIgnoreCase(mode) ? "attachment" : "inline";
+            Instant expiresAt = Instant.now().plus(Duration.ofMinutes(urlMinutes));
+            return ResponseEntity.ok(new PresignedUrlResponse(null, file.getFileCode(),
+                    downloadUrl(file, dispositionType, expiresAt).toString(), expiresAt));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error creating download URL: " + e.getMessage());
+        }
+    }
+
+    // S3 serves the object with our file name and disposition, and handles Range and conditional requests itself
+    public URL downloadUrl(Files file, String dispositionType, Instant expiresAt) throws IOException {
+        String contentType = java.nio.file.Files.probeContentType(java.nio.file.Paths.get(file.getFileName()));
+        ResponseHeaderOverrides overrides = new ResponseHeaderOverrides()
+                .withContentDisposition(dispositionType + "; filename=\"" + file.getFileName() + "\"")
+                .withContentType(contentType != null && "inline".equals(dispositionType) ? contentType : "application/octet-stream");
+        return amazonS3.generatePresignedUrl(new GeneratePresignedUrlRequest(bucketName, file.getFileCode(), HttpMethod.GET)
+                .withExpiration(Date.from(expiresAt))
+                .withResponseHeaders(overrides));
+    }
+}
@@ -0,0 +1,112 @@
+package com.monikatammineni.fsadproject.service;
+
+import com.monikatammineni.fsadproject.entity.Appointment;
+import com.monikatammineni.fsadproject.entity.AppointmentSeries;
+import com.monikatammineni.fsadproject.repository.AppointmentRepository;
+import com.monikatammineni.fsadproject.repository.AppointmentSeriesRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Expands recurring series into their occurrences for a date range, on the fly.
+ */
+@Service
+public class RecurrenceService {
+
+    @Autowired
+    private AppointmentSeriesRepository seriesRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    /**
+     * Occurrence dates of the series between {@code from} and {@code to} (inclusive). Every date is computed from the
+     * start date, so monthly series don't drift after a short month.
+     */
+    public List<LocalDate> occurrenceDates(AppointmentSeries series, LocalDate from, LocalDate to) {
+        List<LocalDate> dates = new ArrayList<>();
+        ChronoUnit unit = unitOf(series.getFrequency());
+        int every = Math.max(1, series.getRepeatEvery());
+        LocalDate last = series.getUntilDate() == null || series.getUntilDate().isAfter(to) ? to : series.getUntilDate();
+
+        // Jump straight to the first occurrence that can fall inside the range
+        long k = from.isAfter(series.getStartDate()) ? unit.between(series.getStartDate(), from) / every : 0;
+        for (; series.getOccurrences() == null || k < series.getOccurrences(); k++) {
+            LocalDate date = series.getStartDate().plus(k * every, unit);
+            if (date.isAfter(last)) {
+                break;
+            }
+            if (!date.isBefore(from)) {
+                dates.add(date);
+            }
+        }
+        return dates;
+    }
+
+    /**
+     * Unstored occurrences of every matching series between the two dates, as transient appointments
+     * (appointmentId null, seriesId and occurrenceDate set). Occurrences that have a stored exception row are left
+     * out; the exception row itself comes back from the regular appointment queries.
+     */
+    public List<Appointment> expand(LocalDate from, LocalDate to, Integer doctorId, Integer patientId) {
+        List<AppointmentSeries> seriesList = seriesRepository.findOverlapping(from, to, doctorId, patientId);
+        if (seriesList.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Integer, Set<LocalDate>> exceptions = exceptionDates(seriesList, from, to);
+
+        List<Appointment> occurrences = new ArrayList<>();
+        for (AppointmentSeries series : seriesList) {
+            Set<LocalDate> skipped = exceptions.getOrDefault(series.getSeriesId(), Set.of());
+            for (LocalDate date : occurrenceDates(series, from, to)) {
+                if (!skipped.contains(date)) {
+                    occurrences.add(toOccurrence(series, date));
+                }
+            }
+        }
+        occurrences.sort(Comparator.comparing(Appointment::getAppointmentDate).thenComparing(Appointment::getAppointmentTime));
+        return occurrences;
+    }
+
+    // Occurrence dates per series that have been cancelled or moved
+    public Map<Integer, Set<LocalDate>> exceptionDates(List<AppointmentSeries> seriesList, LocalDate from, LocalDate to) {
+        Set<Integer> seriesIds = new HashSet<>();
+        seriesList.forEach(series -> seriesIds.add(series.getSeriesId()));
+        Map<Integer, Set<LocalDate>> exceptions = new HashMap<>();
+        appointmentRepository.findBySeriesIdInAndOccurrenceDateBetween(seriesIds, from, to).forEach(row ->
+                exceptions.computeIfAbsent(row.getSeriesId(), id -> new HashSet<>()).add(row.getOccurrenceDate()));
+        return exceptions;
+    }
+
+    public Appointment toOccurrence(AppointmentSeries series, LocalDate date) {
+        Appointment occurrence = new Appointment();
+        occurrence.setPatientId(series.getPatientId());
+        occurrence.setDoctorId(series.getDoctorId());
+        occurrence.setCreatedByUserId(series.getCreatedByUserId());
+        occurrence.setAppointmentDate(date);
+        occurrence.setAppointmentTime(series.getAppointmentTime());
+        occurrence.setStatus(Appointment.statusType.SCHEDULED);
+        occurrence.setNotes(series.getNotes());
+        occurrence.setSeriesId(series.getSeriesId());
+        occurrence.setOccurrenceDate(date);
+        return occurrence;
+    }
+
+    private static ChronoUnit unitOf(AppointmentSeries.Frequency frequency) {
+        return switch (frequency) {
+            case DAILY -> ChronoUnit.DAYS;
+            case WEEKLY -> ChronoUnit.WEEKS;
+            case MONTHLY -> ChronoUnit.MONTHS;
+        };
+    }
+}
@@ -1,40 +1,46 @@
 package com.monikatammineni.fsadproject.service;
-import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.model.ObjectMetadata;
-import com.amazonaws.services.s3.model.PutObjectRequest;
-import com.amazonaws.services.s3.model.S3Object;
-import com.amazonaws.services.s3.model.S3ObjectInputStream;
-import com.amazonaws.util.IOUtils;
 import com.monikatammineni.fsadproject.entity.Files;
+import com.monikatammineni.fsadproject.jwt.AuthenticatedUser;
 import com.monikatammineni.fsadproject.jwt.TokenHelper;
 import com.monikatammineni.fsadproject.repository.FileRepository;
-import io.jsonwebtoken.Claims;
+import com.monikatammineni.fsadproject.storage.BlobMetadata;
+import com.monikatammineni.fsadproject.storage.BlobStore;
+import com.monikatammineni.fsadproject.storage.StaleBlobException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 
 @Service
 public class S3Service {
 
-    private final AmazonS3 amazonS3;
+    private final BlobStore blobStore;
+    private final ObjectMetadataCache objectMetadata;
 
     //logger
     private static final Logger log = LoggerFactory.getLogger(S3Service.class);
 
-    @Value("${aws.s3.bucket}")
-    private String bucketName;
-
     @Autowired
     private FileRepository fileRepository;
 
@@ -42,51 +48,49 @@ public class S3Service {
     @Autowired
     private TokenHelper tokenHelper;
 
-    public S3Service(AmazonS3 amazonS3) {
-        this.amazonS3 = amazonS3;
+    // Only present with the S3 backend
+    @Autowired(required = false)
+    private PresignedUrlService presignedUrlService;
+
+    // When set (S3 backend only), downloads redirect to a short-lived presigned URL and the bytes never pass through
+    // this service
+    @Value("${aws.s3.direct-downloads:false}")
+    private boolean directDownloads;
+
+    @Value("${aws.s3.presigned-url-minutes:15}")
+    private long presignedUrlMinutes;
+
+    public S3Service(BlobStore blobStore, ObjectMetadataCache objectMetadata) {
+        this.blobStore = blobStore;
+        this.objectMetadata = objectMetadata;
     }
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR')")
     public String uploadFile(MultipartFile file, String category, int patientUserId, String token) throws IOException {
         if (file == null || file.isEmpty()) {
             return "File is empty or null";
         }
 
-        Claims claims = tokenHelper.getClaims(token);
-        int user_id = 0;
-        String accountType = null;
-        if (claims != null) {
-            user_id = claims.get("id", Integer.class);
-            accountType = claims.get("account_type", String.class);  // <-- Carefully notice claim key
-            log.info("User ID from token: " + user_id);
-            log.info("Account Type from token: " + accountType);
-        } else {
-            return "Invalid token";
-        }
-
-        // ✅ Restriction logic
-        if (accountType == null || (!accountType.equalsIgnoreCase("ADMIN") && !accountType.equalsIgnoreCase("DOCTOR"))) {
-            return "Only Admin or Doctor users are allowed to upload files.";
-        }
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        int user_id = principal.id();
+        log.info("User ID from token: " + user_id);
 
         try {
             // 1. Prepare data
             String originalFileName = file.getOriginalFilename();
             String fileCode = patientUserId + "_" + System.currentTimeMillis();
 
-            ObjectMetadata metadata = new ObjectMetadata();
-            metadata.setContentLength(file.getSize());
-            metadata.setContentType(file.getContentType());
-
-            // 2. Upload to S3 first
-            amazonS3.putObject(
-                    new PutObjectRequest(
-                            bucketName,
-                            fileCode,  // Actual object name in S3
-                            file.getInputStream(),
-                            metadata
-                    )
-            );
-
-            // 3. Only if S3 upload is successful, save into SQL
+            // 2. Store the bytes first. Spring has already spooled the body, so move it to a file (a rename when
+            // it is on disk) and hand that to the store, which on S3 sends large files as parallel parts
+            File spooled = File.createTempFile("upload-", ".part");
+            try {
+                file.transferTo(spooled);
+                blobStore.put(fileCode, spooled.toPath(), file.getContentType());
+                objectMetadata.invalidate(fileCode);
+            } finally {
+                spooled.delete();
+            }
+
+            // 3. Only if the upload is successful, save into SQL
             Files uploadedFileRecord = new Files();
             uploadedFileRecord.setFileName(originalFileName);
             uploadedFileRecord.setCategory(category);
@@ -105,43 +109,42 @@ public class S3Service {
 
 
 
-    public ResponseEntity<?> downloadFile(int fileId, String token) {
+    public ResponseEntity<StreamingResponseBody> downloadFile(int fileId, String token, HttpHeaders requestHeaders) {
         // 1. Validate Token
-        Claims claims = tokenHelper.getClaims(token);
-        if (claims == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return message(HttpStatus.UNAUTHORIZED, "Invalid or expired token.");
         }
 
         try {
             Files file = fileRepository.findByFileId(fileId);
+            if (file == null) {
+                return message(HttpStatus.NOT_FOUND, "File not found.");
+            }
             log.info("File Code:"+ file.getFileCode());
-            // 2. Fetch from S3
-            S3Object s3Object = amazonS3.getObject(bucketName, file.getFileCode());
-            S3ObjectInputStream inputStream = s3Object.getObjectContent();
-            byte[] fileBytes = IOUtils.toByteArray(inputStream);
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
-                    .body(fileBytes);
+            if (directDownloads && presignedUrlService != null) {
+                return redirectToObject(file, "attachment");
+            }
+            // 2. Stream from S3
+            return streamObject(file, "attachment", MediaType.APPLICATION_OCTET_STREAM, requestHeaders);
 
         } catch (Exception e) {
             e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error retrieving file: " + e.getMessage());
+            return message(HttpStatus.INTERNAL_SERVER_ERROR, "Error retrieving file: " + e.getMessage());
         }
     }
 
-    public ResponseEntity<?> viewFile(int fileId, String token, String mode) {
-        Claims claims = tokenHelper.getClaims(token);
-        if (claims == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
+    public ResponseEntity<StreamingResponseBody> viewFile(int fileId, String token, String mode, HttpHeaders requestHeaders) {
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
+            return message(HttpStatus.UNAUTHORIZED, "Invalid or expired token.");
         }
 
         try {
             Files file = fileRepository.findByFileId(fileId);
-            S3Object s3Object = amazonS3.getObject(bucketName, file.getFileCode());
-            S3ObjectInputStream inputStream = s3Object.getObjectContent();
-            byte[] fileBytes = IOUtils.toByteArray(inputStream);
+            if (file == null) {
+                return message(HttpStatus.NOT_FOUND, "File not found.");
+            }
 
             // Determine content type
             String contentType = java.nio.file.Files.probeContentType(Paths.get(file.getFileName()));
@@ -155,21 +158,135 @@ public class S3Service {
                 dispositionType = "attachment";
             }
 
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, dispositionType + "; filename=\"" + file.getFileName() + "\"")
-                    .body(fileBytes);
+            if (directDownloads && presignedUrlService != null) {
+                return redirectToObject(file, dispositionType);
+            }
+            return streamObject(file, dispositionType, MediaType.parseMediaType(contentType), requestHeaders);
 
         } catch (Exception e) {
             e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error retrieving file: " + e.getMessage());
+            return message(HttpStatus.INTERNAL_SERVER_ERROR, "Error retrieving file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Streams the stored object, or the single byte range the client asked for.
+     * <p>
+     * Validators come from the object metadata (falling back to the row's createdAt), which is cached per file code.
+     * That lets If-None-Match / If-Modified-Since answer 304 without touching storage, and lets a Range header become
+     * a ranged read so a seek only fetches the bytes it needs. If-Range that no longer matches, or a multi-range
+     * request, gets the whole object. The read is pinned to the cached ETag; if the object was replaced since, the
+     * response is aborted and the entry dropped, so the retry sees the new object.
+     */
+    private ResponseEntity<StreamingResponseBody> streamObject(Files file, String dispositionType, MediaType contentType,
+                                                               HttpHeaders requestHeaders) {
+        BlobMetadata metadata = objectMetadata.get(file.getFileCode());
+        if (metadata == null) {
+            return message(HttpStatus.NOT_FOUND, "File not found.");
+        }
+        long length = metadata.length();
+        String eTag = metadata.eTag() != null ? "\"" + metadata.eTag() + "\"" : null;
+        long lastModified = metadata.lastModified() != null ? metadata.lastModified().toEpochMilli()
+                : file.getCreatedAt() != null ? file.getCreatedAt().getTime() : -1;
+
+        HttpHeaders headers = new HttpHeaders();
+        if (eTag != null) {
+            headers.setETag(eTag);
+        }
+        if (lastModified >= 0) {
+            headers.setLastModified(lastModified);
         }
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (notModified(requestHeaders, eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+
+        HttpRange range = requestedRange(requestHeaders, eTag, lastModified);
+        long start = 0;
+        long end = length - 1;
+        if (range != null) {
+            try {
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+            } catch (IllegalArgumentException e) {
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+            }
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        headers.setContentType(contentType);
+        headers.setContentLength(end - start + 1);
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, dispositionType + "; filename=\"" + file.getFileName() + "\"");
+
+        long rangeStart = start;
+        long rangeEnd = end;
+        StreamingResponseBody body = outputStream -> {
+            try {
+                blobStore.read(file.getFileCode(), rangeStart, rangeEnd, metadata.eTag(), outputStream);
+            } catch (StaleBlobException e) {
+                // Headers already went out with the old length and validators, so all that is left is to abort
+                objectMetadata.invalidate(file.getFileCode());
+                log.warn("Cached metadata for {} was stale, aborting the download", file.getFileCode());
+                throw e;
+            }
+        };
+        return ResponseEntity.status(range != null ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK).headers(headers).body(body);
+    }
+
+    private ResponseEntity<StreamingResponseBody> redirectToObject(Files file, String dispositionType) throws Exception {
+        URL url = presignedUrlService.downloadUrl(file, dispositionType, Instant.now().plus(Duration.ofMinutes(presignedUrlMinutes)));
+        return ResponseEntity.status(HttpStatus.FOUND).location(url.toURI()).build();
+    }
+
+    private static boolean notModified(HttpHeaders requestHeaders, String eTag, long lastModified) {
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            // If-None-Match wins over If-Modified-Since and uses weak comparison
+            return eTag != null && ifNoneMatch.stream()
+                    .anyMatch(tag -> "*".equals(tag) || eTag.equals(tag.startsWith("W/") ? tag.substring(2) : tag));
+        }
+        long ifModifiedSince = requestHeaders.getIfModifiedSince();
+        return ifModifiedSince >= 0 && lastModified >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    // The single range to serve, or null for the whole object
+    private static HttpRange requestedRange(HttpHeaders requestHeaders, String eTag, long lastModified) {
+        String rangeHeader = requestHeaders.getFirst(HttpHeaders.RANGE);
+        if (rangeHeader == null || !ifRangeMatches(requestHeaders.getFirst(HttpHeaders.IF_RANGE), eTag, lastModified)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null; // malformed Range is ignored, not an error
+        }
+    }
+
+    private static boolean ifRangeMatches(String ifRange, String eTag, long lastModified) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(eTag); // strong comparison, so a weak tag never matches
+        }
+        try {
+            long date = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            return lastModified >= 0 && lastModified / 1000 == date;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static ResponseEntity<StreamingResponseBody> message(HttpStatus status, String message) {
+        return ResponseEntity.status(status).contentType(MediaType.TEXT_PLAIN)
+                .body(outputStream -> outputStream.write(message.getBytes(StandardCharsets.UTF_8)));
     }
 
     public ResponseEntity<?> deleteFile(int fileId, String token) {
-        Claims claims = tokenHelper.getClaims(token);
-        if (claims == null) {
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
         }
 
@@ -179,8 +296,9 @@ public class S3Service {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("File not found.");
             }
 
-            // Delete from S3
-            amazonS3.deleteObject(bucketName, file.getFileCode());
+            // Delete from storage
+            blobStore.delete(file.getFileCode());
+            objectMetadata.invalidate(file.getFileCode());
 
             // Delete from SQL
             fileRepository.delete(file);
@@ -195,11 +313,11 @@ public class S3Service {
     }
 
     public ResponseEntity<?> updateFileDetails(int fileId, String token, Files file) {
-        Claims claims = tokenHelper.getClaims(token);
-        int newUserId = claims.get("id", Integer.class);
-        if (claims == null) {
+        AuthenticatedUser principal = tokenHelper.authenticate(token);
+        if (principal == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.");
         }
+        int newUserId = principal.id();
 
         try {
             Files existingFile = fileRepository.findByFileId(fileId);
@@ -0,0 +1,473 @@
+package com.monikatammineni.fsadproject.service;
+
+import com.monikatammineni.fsadproject.entity.Appointment;
+import com.monikatammineni.fsadproject.entity.AppointmentSeries;
+import com.monikatammineni.fsadproject.repository.AppointmentRepository;
+import com.monikatammineni.fsadproject.repository.AppointmentSeriesRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory index of every doctor's booked time, used to reject double bookings before they reach the database.
+ * <p>
+ * Each doctor has one minute-resolution bitmap per day (1440 bits) kept in a sorted map, so a conflict check is a
+ * map lookup plus a bit scan over one slot. Every appointment occupies {@code schedule.slot-minutes} from its start
+ * time; cancelled appointments free their slot. Occurrences of recurring series are indexed up to
+ * {@code schedule.series-horizon-days} ahead. Doctors are guarded by striped locks, so bookings for different
+ * doctors proceed in parallel while the check-then-save for one doctor is atomic.
+ * <p>
+ * The index is built while the context starts, before the web server accepts requests, and rolled forward once a
+ * day: days in the past are dropped and series occurrences are indexed for the day that entered the horizon.
+ */
+@Service
+public class ScheduleEngine {
+
+    private static final int LOCK_STRIPES = 64;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int MAX_SEARCH_DAYS = 366;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentSeriesRepository seriesRepository;
+
+    @Autowired
+    private RecurrenceService recurrenceService;
+
+    @Value("${schedule.slot-minutes:30}")
+    private int slotMinutes;
+
+    @Value("${schedule.day-start:09:00}")
+    private String dayStart;
+
+    @Value("${schedule.day-end:17:00}")
+    private String dayEnd;
+
+    // Recurring series are indexed this far ahead; occurrences beyond it are not conflict-checked
+    @Value("${schedule.series-horizon-days:365}")
+    private int seriesHorizonDays;
+
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final Map<Integer, DoctorSchedule> schedules = new ConcurrentHashMap<>();
+
+    // Last date whose series occurrences are indexed; advanced by roll()
+    private volatile LocalDate indexedThrough;
+
+    //logger
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ScheduleEngine.class);
+
+    public ScheduleEngine() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    // Runs during context refresh, so no booking can be checked against a half-built index
+    @PostConstruct
+    public void warmUp() {
+        // Past appointments can never conflict with a new booking, so only today onwards is indexed
+        long start = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        indexedThrough = today.plusDays(seriesHorizonDays);
+        List<Appointment> upcoming = appointmentRepository.findByAppointmentDateGreaterThanEqual(today);
+        upcoming.forEach(appointment -> {
+            ReentrantLock lock = lockFor(appointment.getDoctorId());
+            lock.lock();
+            try {
+                index(appointment);
+            } finally {
+                lock.unlock();
+            }
+        });
+        List<AppointmentSeries> seriesList = seriesRepository.findOverlapping(today, indexedThrough, null, null);
+        indexSeries(seriesList, today, indexedThrough);
+        log.info("Schedule engine warmed with {} appointments and {} series in {} ms", upcoming.size(), seriesList.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    // Drops days that have passed and indexes series occurrences for the days that entered the horizon
+    @Scheduled(cron = "${schedule.roll-cron:0 5 0 * * *}")
+    public void roll() {
+        LocalDate today = LocalDate.now();
+        int evicted = 0;
+        for (Map.Entry<Integer, DoctorSchedule> entry : schedules.entrySet()) {
+            ReentrantLock lock = lockFor(entry.getKey());
+            lock.lock();
+            try {
+                NavigableMap<LocalDate, Day> past = entry.getValue().days.headMap(today, false);
+                for (Day day : past.values()) {
+                    day.starts.keySet().forEach(entry.getValue().bookings::remove);
+                    evicted++;
+                }
+                past.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        LocalDate from = indexedThrough.plusDays(1);
+        LocalDate to = today.plusDays(seriesHorizonDays);
+        if (from.isAfter(to)) {
+            return;
+        }
+        // Moved first, so a series booked while this runs is checked through the new end itself
+        indexedThrough = to;
+        List<AppointmentSeries> seriesList = seriesRepository.findOverlapping(from, to, null, null);
+        indexSeries(seriesList, from, to);
+        log.info("Schedule engine dropped {} past days and indexed {} series through {}", evicted, seriesList.size(), to);
+    }
+
+    /**
+     * Checks the appointment's slot against the doctor's schedule and, if it is free, runs {@code persist} and
+     * indexes the saved appointment while still holding the doctor's lock.
+     *
+     * @param previousDoctorId doctor the appointment was booked with before this change, or null for a new booking
+     * @return false if the slot overlaps another appointment of the same doctor; nothing is persisted in that case
+     */
+    public boolean book(Integer previousDoctorId, Appointment appointment, Supplier<Appointment> persist) {
+        int doctorId = appointment.getDoctorId();
+        // Always take stripes in index order so a move between two doctors can't deadlock
+        int from = stripe(previousDoctorId == null ? doctorId : previousDoctorId);
+        int to = stripe(doctorId);
+        ReentrantLock first = locks[Math.min(from, to)];
+        ReentrantLock second = locks[Math.max(from, to)];
+        first.lock();
+        second.lock();
+        try {
+            if (occupies(appointment) && !isFree(doctorId, appointment.getAppointmentDate(),
+                    toMinute(appointment.getAppointmentTime()), appointment.getAppointmentId())) {
+                return false;
+            }
+            Appointment saved = persist.get();
+            if (previousDoctorId != null && saved.getAppointmentId() != null) {
+                unindex(previousDoctorId, saved.getAppointmentId());
+            }
+            index(saved);
+            return true;
+        } finally {
+            second.unlock();
+            first.unlock();
+        }
+    }
+
+    // Rebuilds the given doctors from the database, e.g. after a transaction that booked through the engine rolled back
+    public void resync(Collection<Integer> doctorIds) {
+        LocalDate today = LocalDate.now();
+        LocalDate end = horizonEnd();
+        for (int doctorId : doctorIds) {
+            List<Appointment> upcoming = appointmentRepository.findByDoctorIdAndAppointmentDateGreaterThanEqual(doctorId, today);
+            List<AppointmentSeries> seriesList = seriesRepository.findOverlapping(today, end, doctorId, null);
+            Map<Integer, Set<LocalDate>> exceptions = seriesList.isEmpty()
+                    ? Map.of() : recurrenceService.exceptionDates(seriesList, today, end);
+            // The whole rebuild happens under the lock, so a concurrent book() never sees the doctor half indexed
+            ReentrantLock lock = lockFor(doctorId);
+            lock.lock();
+            try {
+                schedules.remove(doctorId);
+                upcoming.forEach(this::index);
+                seriesList.forEach(series -> markSeries(series,
+                        exceptions.getOrDefault(series.getSeriesId(), Set.of()), today, end));
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Checks every occurrence of a new series inside the indexing horizon and, if all are free, runs {@code persist}
+     * and indexes the occurrences while holding the doctor's lock.
+     *
+     * @return the first conflicting occurrence date, or null if the series was booked
+     */
+    public LocalDate bookSeries(AppointmentSeries series, Supplier<AppointmentSeries> persist) {
+        List<LocalDate> dates = recurrenceService.occurrenceDates(series, LocalDate.now(), horizonEnd());
+        int minute = toMinute(series.getAppointmentTime());
+        ReentrantLock lock = lockFor(series.getDoctorId());
+        lock.lock();
+        try {
+            for (LocalDate date : dates) {
+                if (!isFree(series.getDoctorId(), date, minute, null)) {
+                    return date;
+                }
+            }
+            AppointmentSeries saved = persist.get();
+            dates.forEach(date -> mark(saved.getDoctorId(), new OccurrenceKey(saved.getSeriesId(), date), date, minute));
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Books a stored exception for one occurrence of a series (the occurrence moved, changed doctor or was
+     * cancelled). The occurrence's own slot is freed first so a small move doesn't conflict with itself.
+     *
+     * @return false if the new slot overlaps another appointment; nothing is persisted in that case
+     */
+    public boolean bookException(AppointmentSeries series, Appointment exception, Supplier<Appointment> persist) {
+        OccurrenceKey occurrence = new OccurrenceKey(series.getSeriesId(), exception.getOccurrenceDate());
+        int from = stripe(series.getDoctorId());
+        int to = stripe(exception.getDoctorId());
+        ReentrantLock first = locks[Math.min(from, to)];
+        ReentrantLock second = locks[Math.max(from, to)];
+        first.lock();
+        second.lock();
+        try {
+            Booking previous = bookingOf(series.getDoctorId(), occurrence);
+            unindex(series.getDoctorId(), occurrence);
+            if (occupies(exception) && !isFree(exception.getDoctorId(), exception.getAppointmentDate(),
+                    toMinute(exception.getAppointmentTime()), null)) {
+                if (previous != null) {
+                    mark(series.getDoctorId(), occurrence, previous.date(), previous.startMinute());
+                }
+                return false;
+            }
+            index(persist.get());
+            return true;
+        } finally {
+            second.unlock();
+            first.unlock();
+        }
+    }
+
+    // Frees every indexed occurrence of a deleted series
+    public void releaseSeries(AppointmentSeries series) {
+        ReentrantLock lock = lockFor(series.getDoctorId());
+        lock.lock();
+        try {
+            DoctorSchedule schedule = schedules.get(series.getDoctorId());
+            if (schedule == null) {
+                return;
+            }
+            List<Object> keys = schedule.bookings.keySet().stream()
+                    .filter(key -> key instanceof OccurrenceKey occurrence && occurrence.seriesId() == series.getSeriesId())
+                    .toList();
+            keys.forEach(key -> unindex(series.getDoctorId(), key));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Frees the slot held by a deleted appointment
+    public void release(Appointment appointment) {
+        if (appointment.getAppointmentId() == null) {
+            return;
+        }
+        ReentrantLock lock = lockFor(appointment.getDoctorId());
+        lock.lock();
+        try {
+            unindex(appointment.getDoctorId(), appointment.getAppointmentId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code count} free slot start times for the doctor, on the working-hours grid, at or after
+     * {@code from}.
+     */
+    public List<LocalDateTime> nextFreeSlots(int doctorId, LocalDateTime from, int count) {
+        return freeSlots(doctorId, from.toLocalDate(), MAX_SEARCH_DAYS, LocalTime.parse(dayStart), LocalTime.parse(dayEnd), from, count);
+    }
+
+    /**
+     * Returns up to {@code limit} free slot start times, in time order, for {@code days} days starting at
+     * {@code fromDate}. Only grid slots that start inside [windowStart, windowEnd) (clamped to working hours) and
+     * not before {@code notBefore} are considered.
+     */
+    public List<LocalDateTime> freeSlots(int doctorId, LocalDate fromDate, int days, LocalTime windowStart,
+                                         LocalTime windowEnd, LocalDateTime notBefore, int limit) {
+        List<LocalDateTime> slots = new ArrayList<>();
+        int open = toMinute(LocalTime.parse(dayStart));
+        int close = toMinute(LocalTime.parse(dayEnd));
+        int from = Math.max(open, toMinute(windowStart));
+        int to = Math.min(close, toMinute(windowEnd));
+        // Grid slots stay aligned to the opening time even when the window starts mid-slot
+        int first = open + ((Math.max(from - open, 0) + slotMinutes - 1) / slotMinutes) * slotMinutes;
+        ReentrantLock lock = lockFor(doctorId);
+        lock.lock();
+        try {
+            LocalDate date = fromDate;
+            for (int day = 0; day < days && slots.size() < limit; day++, date = date.plusDays(1)) {
+                BitSet occupied = occupancy(doctorId, date);
+                for (int minute = first; minute + slotMinutes <= close && minute < to && slots.size() < limit; minute += slotMinutes) {
+                    LocalDateTime start = date.atStartOfDay().plusMinutes(minute);
+                    if ((notBefore == null || !start.isBefore(notBefore)) && isFree(occupied, minute)) {
+                        slots.add(start);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return slots;
+    }
+
+    private boolean isFree(int doctorId, LocalDate date, int minute, Object ignoreKey) {
+        DoctorSchedule schedule = schedules.get(doctorId);
+        if (schedule == null) {
+            return true;
+        }
+        Day day = schedule.days.get(date);
+        if (day == null) {
+            return true;
+        }
+        BitSet occupied = day.occupied;
+        // An appointment being rescheduled must not conflict with its own current slot
+        Booking own = ignoreKey == null ? null : schedule.bookings.get(ignoreKey);
+        if (own != null && own.date().equals(date)) {
+            occupied = (BitSet) occupied.clone();
+            occupied.clear(own.startMinute(), endMinute(own.startMinute()));
+        }
+        return isFree(occupied, minute);
+    }
+
+    private boolean isFree(BitSet occupied, int minute) {
+        if (occupied == null) {
+            return true;
+        }
+        int next = occupied.nextSetBit(minute);
+        return next == -1 || next >= endMinute(minute);
+    }
+
+    // Caller must hold the doctor's lock
+    private BitSet occupancy(int doctorId, LocalDate date) {
+        DoctorSchedule schedule = schedules.get(doctorId);
+        Day day = schedule == null ? null : schedule.days.get(date);
+        return day == null ? null : day.occupied;
+    }
+
+    // Caller must hold the doctor's lock
+    private void index(Appointment appointment) {
+        if (!occupies(appointment) || appointment.getAppointmentId() == null) {
+            return;
+        }
+        mark(appointment.getDoctorId(), appointment.getAppointmentId(), appointment.getAppointmentDate(),
+                toMinute(appointment.getAppointmentTime()));
+    }
+
+    // Indexes the unstored occurrences of each series in [from, to]; takes each doctor's lock itself
+    private void indexSeries(List<AppointmentSeries> seriesList, LocalDate from, LocalDate to) {
+        if (seriesList.isEmpty()) {
+            return;
+        }
+        Map<Integer, Set<LocalDate>> exceptions = recurrenceService.exceptionDates(seriesList, from, to);
+        for (AppointmentSeries series : seriesList) {
+            ReentrantLock lock = lockFor(series.getDoctorId());
+            lock.lock();
+            try {
+                markSeries(series, exceptions.getOrDefault(series.getSeriesId(), Set.of()), from, to);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Caller must hold the doctor's lock
+    private void markSeries(AppointmentSeries series, Set<LocalDate> skipped, LocalDate from, LocalDate to) {
+        int minute = toMinute(series.getAppointmentTime());
+        recurrenceService.occurrenceDates(series, from, to).stream()
+                .filter(date -> !skipped.contains(date))
+                .forEach(date -> mark(series.getDoctorId(), new OccurrenceKey(series.getSeriesId(), date), date, minute));
+    }
+
+    // Caller must hold the doctor's lock
+    private void mark(int doctorId, Object key, LocalDate date, int minute) {
+        DoctorSchedule schedule = schedules.computeIfAbsent(doctorId, id -> new DoctorSchedule());
+        if (schedule.bookings.containsKey(key)) {
+            unindex(doctorId, key);
+        }
+        Day day = schedule.days.computeIfAbsent(date, d -> new Day());
+        day.starts.put(key, minute);
+        day.occupied.set(minute, endMinute(minute));
+        schedule.bookings.put(key, new Booking(date, minute));
+    }
+
+    // Caller must hold the doctor's lock
+    private Booking bookingOf(int doctorId, Object key) {
+        DoctorSchedule schedule = schedules.get(doctorId);
+        return schedule == null ? null : schedule.bookings.get(key);
+    }
+
+    // Caller must hold the doctor's lock; key is an appointmentId or an OccurrenceKey
+    private void unindex(int doctorId, Object key) {
+        DoctorSchedule schedule = schedules.get(doctorId);
+        if (schedule == null) {
+            return;
+        }
+        Booking booking = schedule.bookings.remove(key);
+        if (booking == null) {
+            return;
+        }
+        Day day = schedule.days.get(booking.date());
+        day.starts.remove(key);
+        if (day.starts.isEmpty()) {
+            schedule.days.remove(booking.date());
+            return;
+        }
+        day.occupied.clear(booking.startMinute(), endMinute(booking.startMinute()));
+        // Slots can overlap only when they were stored before conflict checking existed; re-mark that day's survivors
+        day.starts.values().forEach(start -> day.occupied.set(start, endMinute(start)));
+    }
+
+    private boolean occupies(Appointment appointment) {
+        return appointment.getAppointmentDate() != null && appointment.getAppointmentTime() != null
+                && appointment.getStatus() != Appointment.statusType.CANCELLED;
+    }
+
+    private LocalDate horizonEnd() {
+        return indexedThrough;
+    }
+
+    private int endMinute(int startMinute) {
+        return Math.min(startMinute + slotMinutes, MINUTES_PER_DAY);
+    }
+
+    private static int toMinute(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static int stripe(int doctorId) {
+        return Math.floorMod(doctorId, LOCK_STRIPES);
+    }
+
+    private ReentrantLock lockFor(int doctorId) {
+        return locks[stripe(doctorId)];
+    }
+
+    private static final class DoctorSchedule {
+        private final TreeMap<LocalDate, Day> days = new TreeMap<>();
+        private final Map<Object, Booking> bookings = new HashMap<>(); // appointmentId or OccurrenceKey -> slot it holds
+    }
+
+    private static final class Day {
+        private final BitSet occupied = new BitSet(MINUTES_PER_DAY); // minute-of-day occupancy
+        private final Map<Object, Integer> starts = new HashMap<>(); // key -> start minute of the bookings on this day
+    }
+
+    private record OccurrenceKey(int seriesId, LocalDate date) {
+    }
+
+    private record Booking(LocalDate date, int startMinute) {
+    }
+}
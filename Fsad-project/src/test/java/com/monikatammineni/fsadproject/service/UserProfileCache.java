@@ -0,0 +1,79 @@
+package com.monikatammineni.fsadproject.service;
+
+import com.monikatammineni.fsadproject.cache.CacheRegistry;
+import com.monikatammineni.fsadproject.cache.LruCache;
+import com.monikatammineni.fsadproject.entity.RegisterRequest;
+import com.monikatammineni.fsadproject.entity.User;
+import com.monikatammineni.fsadproject.entity.UserName;
+import com.monikatammineni.fsadproject.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Read-through cache of user profiles by id for the per-navigation getUser calls, plus the doctor list, which
+ * changes far less often than it is read. Entries are only dropped by {@link #invalidate(int)}, so every code path
+ * that creates, changes or deletes a user must call it; cached instances are shared between requests and must not
+ * be modified.
+ * <p>
+ * Lookups by email map the email to a user id and then go through the id cache, so a profile is cached once however
+ * it was found. Paths that change or remove an email also call {@link #invalidateEmail(String)}, and the profile
+ * found is checked against the email asked for, so a mapping left behind by a changed email is never served.
+ */
+@Service
+public class UserProfileCache {
+
+    private final UserRepository userRepository;
+    private final LruCache<Integer, User> profiles;
+    private final LruCache<String, Integer> idsByEmail;
+    private final LruCache<String, List<UserName>> doctorList;
+
+    public UserProfileCache(UserRepository userRepository, CacheRegistry cacheRegistry,
+                            @Value("${userprofile.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.profiles = cacheRegistry.create("userProfiles", maxEntries);
+        this.idsByEmail = cacheRegistry.create("userIdsByEmail", maxEntries);
+        this.doctorList = cacheRegistry.create("doctorList", 1);
+    }
+
+    public User get(int userId) {
+        return profiles.get(userId, id -> userRepository.findById(id.intValue()));
+    }
+
+    public User getByEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        String key = email.trim().toLowerCase();
+        Integer userId = idsByEmail.get(key, k -> {
+            User user = userRepository.findByEmail(k);
+            return user == null ? null : user.getId();
+        });
+        User user = userId == null ? null : get(userId);
+        if (user == null || user.getEmail() == null || !user.getEmail().trim().equalsIgnoreCase(key)) {
+            // The user was deleted or moved to another email since the mapping was cached
+            idsByEmail.invalidate(key);
+            return userId == null ? null : userRepository.findByEmail(key);
+        }
+        return user;
+    }
+
+    public List<UserName> doctors() {
+        String doctor = RegisterRequest.AccountType.DOCTOR.toString();
+        return doctorList.get(doctor, accountType ->
+                List.copyOf(userRepository.findNamesByAccountTypeOrderByFirstNameAscLastNameAsc(accountType)));
+    }
+
+    // Any user change may add, rename or remove a doctor, so the doctor list goes too
+    public void invalidate(int userId) {
+        profiles.invalidate(userId);
+        doctorList.invalidateAll();
+    }
+
+    public void invalidateEmail(String email) {
+        if (email != null) {
+            idsByEmail.invalidate(email.trim().toLowerCase());
+        }
+    }
+}
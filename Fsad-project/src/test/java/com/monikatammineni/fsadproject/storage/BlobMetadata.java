@@ -0,0 +1,7 @@
+package com.monikatammineni.fsadproject.storage;
+
+import java.time.Instant;
+
+// eTag is unquoted, as S3 reports it
+public record BlobMetadata(long length, String eTag, Instant lastModified) {
+}
@@ -0,0 +1,32 @@
+package com.monikatammineni.fsadproject.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+/**
+ * Where uploaded file bytes live, addressed by the {@code fileCode} of their Files row.
+ * <p>
+ * The backend is chosen with {@code storage.backend}: {@code s3} (the default) or {@code local}. Implementations only
+ * need whole-object puts, ranged reads and deletes. Reads can be pinned to an ETag from {@link #stat(String)}, so a
+ * caller holding cached metadata never streams bytes of a different object than the one it described.
+ */
+public interface BlobStore {
+
+    // Stores the file under key, replacing any previous object; readers see either the old or the new bytes
+    void put(String key, Path source, String contentType) throws IOException;
+
+    // Length and validators of the object, or null when there is no object under key
+    BlobMetadata stat(String key) throws IOException;
+
+    // Copies bytes start..end (inclusive) of the object to out
+    default void read(String key, long start, long end, OutputStream out) throws IOException {
+        read(key, start, end, null, out);
+    }
+
+    // As above, but throws StaleBlobException, before writing anything, unless the object still has the given ETag
+    void read(String key, long start, long end, String eTag, OutputStream out) throws IOException;
+
+    // Removing a key that does not exist is not an error
+    void delete(String key) throws IOException;
+}
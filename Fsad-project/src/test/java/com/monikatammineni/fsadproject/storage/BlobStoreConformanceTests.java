@@ -0,0 +1,127 @@
+package com.monikatammineni.fsadproject.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Behaviour every BlobStore backend must share; each backend runs it through a subclass
+abstract class BlobStoreConformanceTests {
+
+    @TempDir
+    Path tempDir;
+
+    BlobStore store;
+
+    abstract BlobStore createStore() throws IOException;
+
+    @BeforeEach
+    void setUpStore() throws IOException {
+        store = createStore();
+    }
+
+    @Test
+    void statReportsLengthAndValidators() throws IOException {
+        store.put("7_1000", source(bytes(1234)), "application/pdf");
+
+        BlobMetadata metadata = store.stat("7_1000");
+
+        assertNotNull(metadata);
+        assertEquals(1234, metadata.length());
+        assertNotNull(metadata.eTag());
+        assertNotNull(metadata.lastModified());
+    }
+
+    @Test
+    void statOfMissingKeyIsNull() throws IOException {
+        assertNull(store.stat("7_missing"));
+    }
+
+    @Test
+    void readsWholeObject() throws IOException {
+        byte[] content = bytes(200 * 1024); // spans several copy buffers
+        store.put("7_1001", source(content), null);
+
+        assertArrayEquals(content, read("7_1001", 0, content.length - 1));
+    }
+
+    @Test
+    void readsByteRanges() throws IOException {
+        byte[] content = bytes(10_000);
+        store.put("7_1002", source(content), null);
+
+        assertArrayEquals(Arrays.copyOfRange(content, 100, 200), read("7_1002", 100, 199));
+        assertArrayEquals(Arrays.copyOfRange(content, 9_999, 10_000), read("7_1002", 9_999, 9_999));
+    }
+
+    @Test
+    void emptyObjectRoundTrips() throws IOException {
+        store.put("7_1003", source(new byte[0]), null);
+
+        assertEquals(0, store.stat("7_1003").length());
+        assertArrayEquals(new byte[0], read("7_1003", 0, -1));
+    }
+
+    @Test
+    void putReplacesExistingObject() throws IOException {
+        store.put("7_1004", source(bytes(100)), null);
+        byte[] replacement = bytes(50);
+        store.put("7_1004", source(replacement), null);
+
+        assertEquals(50, store.stat("7_1004").length());
+        assertArrayEquals(replacement, read("7_1004", 0, 49));
+    }
+
+    @Test
+    void readPinnedToReplacedETagFails() throws IOException {
+        store.put("7_1006", source(bytes(100)), null);
+        String eTag = store.stat("7_1006").eTag();
+        assertArrayEquals(read("7_1006", 0, 99), readPinned("7_1006", 0, 99, eTag));
+
+        store.put("7_1006", source(bytes(50)), null);
+
+        assertThrows(StaleBlobException.class, () -> readPinned("7_1006", 0, 49, eTag));
+    }
+
+    @Test
+    void deleteRemovesObjectAndIgnoresMissingKeys() throws IOException {
+        store.put("7_1005", source(bytes(10)), null);
+
+        store.delete("7_1005");
+        store.delete("7_1005");
+
+        assertNull(store.stat("7_1005"));
+    }
+
+    private Path source(byte[] content) throws IOException {
+        Path file = Files.createTempFile(tempDir, "source-", ".bin");
+        Files.write(file, content);
+        return file;
+    }
+
+    private byte[] read(String key, long start, long end) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        store.read(key, start, end, out);
+        return out.toByteArray();
+    }
+
+    private byte[] readPinned(String key, long start, long end, String eTag) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        store.read(key, start, end, eTag, out);
+        return out.toByteArray();
+    }
+
+    private static byte[] bytes(int length) {
+        byte[] content = new byte[length];
+        new Random(length).nextBytes(content);
+        return content;
+    }
+}
@@ -0,0 +1,116 @@
+package com.monikatammineni.fsadproject.storage;
+
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import org.apache.http.client.methods.HttpGet;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-process stand-in for the handful of S3 calls the blob store makes; anything else throws UnsupportedOperationException
+class InMemoryAmazonS3 extends AbstractAmazonS3 {
+
+    private final Map<String, StoredObject> objects = new ConcurrentHashMap<>();
+
+    @Override
+    public PutObjectResult putObject(PutObjectRequest request) {
+        byte[] content;
+        try (InputStream in = request.getFile() != null
+                ? Files.newInputStream(request.getFile().toPath()) : request.getInputStream()) {
+            content = in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ObjectMetadata metadata = new ObjectMetadata();
+        if (request.getMetadata() != null && request.getMetadata().getContentType() != null) {
+            metadata.setContentType(request.getMetadata().getContentType());
+        }
+        metadata.setContentLength(content.length);
+        metadata.setHeader("ETag", md5(content));
+        metadata.setLastModified(new Date());
+        objects.put(id(request.getBucketName(), request.getKey()), new StoredObject(content, metadata));
+
+        PutObjectResult result = new PutObjectResult();
+        result.setETag(metadata.getETag());
+        return result;
+    }
+
+    @Override
+    public ObjectMetadata getObjectMetadata(String bucketName, String key) {
+        return find(bucketName, key).metadata().clone();
+    }
+
+    @Override
+    public S3Object getObject(GetObjectRequest request) {
+        StoredObject stored = find(request.getBucketName(), request.getKey());
+        if (!request.getMatchingETagConstraints().isEmpty()
+                && !request.getMatchingETagConstraints().contains(stored.metadata().getETag())) {
+            return null; // what the SDK returns for a failed precondition
+        }
+        byte[] content = stored.content();
+        long[] range = request.getRange();
+        if (range != null) {
+            if (range[0] >= content.length) {
+                AmazonS3Exception e = new AmazonS3Exception("The requested range is not satisfiable");
+                e.setStatusCode(416);
+                throw e;
+            }
+            content = Arrays.copyOfRange(content, (int) range[0], (int) Math.min(range[1] + 1, content.length));
+        }
+        ObjectMetadata metadata = stored.metadata().clone();
+        metadata.setContentLength(content.length);
+
+        S3Object object = new S3Object();
+        object.setBucketName(request.getBucketName());
+        object.setKey(request.getKey());
+        object.setObjectMetadata(metadata);
+        object.setObjectContent(new S3ObjectInputStream(new ByteArrayInputStream(content), new HttpGet()));
+        return object;
+    }
+
+    @Override
+    public void deleteObject(String bucketName, String key) {
+        objects.remove(id(bucketName, key));
+    }
+
+    private StoredObject find(String bucketName, String key) {
+        StoredObject stored = objects.get(id(bucketName, key));
+        if (stored == null) {
+            AmazonS3Exception e = new AmazonS3Exception("Not Found");
+            e.setStatusCode(404);
+            throw e;
+        }
+        return stored;
+    }
+
+    private static String id(String bucketName, String key) {
+        return bucketName + "/" + key;
+    }
+
+    private static String md5(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record StoredObject(byte[] content, ObjectMetadata metadata) {
+    }
+}
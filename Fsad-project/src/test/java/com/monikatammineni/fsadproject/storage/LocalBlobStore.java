@@ -0,0 +1,142 @@
+package com.monikatammineni.fsadproject.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Objects as plain files under {@code storage.local.root}, for development, CI and on-prem installs without S3.
+ * <p>
+ * Keys are spread over two levels of directories taken from the SHA-256 of the key ({@code ab/cd/<key>}) so no
+ * directory grows past a few thousand entries. Writes go to a temp file in the target directory, are forced to disk
+ * and then renamed over the target, so a reader never sees a half-written object; the directory is forced after the
+ * rename so the new entry survives a crash too. Reads are a plain buffered copy into the response stream.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local")
+public class LocalBlobStore implements BlobStore {
+
+    // File codes are generated server-side; anything else could escape the root
+    private static final Pattern VALID_KEY = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+
+    public LocalBlobStore(@Value("${storage.local.root:./blob-store}") Path root) throws IOException {
+        this.root = root.toAbsolutePath().normalize();
+        Files.createDirectories(this.root);
+    }
+
+    // The content type is not stored; callers derive it from the file name
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        Path target = path(key);
+        Path directory = target.getParent();
+        boolean newDirectory = !Files.isDirectory(directory);
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, ".upload-", ".tmp");
+        try {
+            Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            // The rename only changes the directory, so that is what has to reach the disk, along with the entries
+            // of any shard directories created for it
+            forceDirectory(directory);
+            if (newDirectory) {
+                forceDirectory(directory.getParent());
+                forceDirectory(root);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public BlobMetadata stat(String key) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path(key), BasicFileAttributes.class);
+            // Every put renames a new file into place, so size, mtime and inode together identify the content
+            String eTag = Long.toHexString(attributes.size())
+                    + "-" + Long.toHexString(attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS))
+                    + "-" + Integer.toHexString(Objects.hashCode(attributes.fileKey()));
+            return new BlobMetadata(attributes.size(), eTag, attributes.lastModifiedTime().toInstant());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void read(String key, long start, long end, String eTag, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(path(key), StandardOpenOption.READ)) {
+            // Checked after opening: a put renamed in later can't change the file this channel reads
+            if (eTag != null) {
+                BlobMetadata current = stat(key);
+                if (current == null || !eTag.equals(current.eTag())) {
+                    throw new StaleBlobException(key, eTag);
+                }
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+            long position = start;
+            while (position <= end) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), end - position + 1));
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new EOFException("Object " + key + " ends before byte " + end);
+                }
+                out.write(buffer.array(), 0, read);
+                position += read;
+            }
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(path(key));
+    }
+
+    private static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException e) {
+            // Windows can't open a directory as a channel; NTFS already makes the rename itself durable
+        }
+    }
+
+    Path path(String key) {
+        if (key == null || !VALID_KEY.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+        String hash = HexFormat.of().formatHex(sha256(key));
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(key);
+    }
+
+    private static byte[] sha256(String key) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JRE ships SHA-256
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.monikatammineni.fsadproject.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalBlobStoreTests extends BlobStoreConformanceTests {
+
+    @Override
+    BlobStore createStore() throws IOException {
+        return new LocalBlobStore(tempDir.resolve("blobs"));
+    }
+
+    @Test
+    void storesObjectsInShardedDirectories() throws IOException {
+        Path source = Files.write(tempDir.resolve("source.bin"), new byte[]{1, 2, 3});
+        store.put("12_1700000000000", source, null);
+
+        Path stored = ((LocalBlobStore) store).path("12_1700000000000");
+        assertTrue(Files.isRegularFile(stored));
+        assertEquals(tempDir.resolve("blobs").toAbsolutePath().normalize(), stored.getParent().getParent().getParent());
+        assertEquals(2, stored.getParent().getFileName().toString().length());
+    }
+
+    @Test
+    void leavesNoTempFilesBehind() throws IOException {
+        Path source = Files.write(tempDir.resolve("source.bin"), new byte[]{1, 2, 3});
+        store.put("12_1", source, null);
+        store.put("12_1", source, null);
+
+        try (Stream<Path> files = Files.walk(tempDir.resolve("blobs"))) {
+            assertTrue(files.noneMatch(path -> path.getFileName().toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    void rejectsKeysThatCouldEscapeTheRoot() {
+        for (String key : new String[]{"../passwd", "a/b", ".hidden", "", "a\\b"}) {
+            assertThrows(IllegalArgumentException.class, () -> store.stat(key), key);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.monikatammineni.fsadproject.storage;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+// Objects in the aws.s3.bucket bucket; large puts go through the TransferManager as parallel parts
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "s3", matchIfMissing = true)
+public class S3BlobStore implements BlobStore {
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private final AmazonS3 amazonS3;
+    private final TransferManager transferManager;
+    private final String bucketName;
+
+    public S3BlobStore(AmazonS3 amazonS3, TransferManager transferManager, @Value("${aws.s3.bucket}") String bucketName) {
+        this.amazonS3 = amazonS3;
+        this.transferManager = transferManager;
+        this.bucketName = bucketName;
+    }
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        ObjectMetadata metadata = new ObjectMetadata();
+        if (contentType != null) {
+            metadata.setContentType(contentType);
+        }
+        try {
+            transferManager.upload(new PutObjectRequest(bucketName, key, source.toFile()).withMetadata(metadata))
+                    .waitForCompletion();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Upload of " + key + " was interrupted");
+        }
+    }
+
+    @Override
+    public BlobMetadata stat(String key) {
+        try {
+            ObjectMetadata metadata = amazonS3.getObjectMetadata(bucketName, key);
+            return new BlobMetadata(metadata.getContentLength(), metadata.getETag(),
+                    metadata.getLastModified() != null ? metadata.getLastModified().toInstant() : null);
+        } catch (AmazonServiceException e) {
+            if (e.getStatusCode() == 404) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void read(String key, long start, long end, String eTag, OutputStream out) throws IOException {
+        if (end < start) {
+            return; // empty object, nothing to fetch
+        }
+        GetObjectRequest request = new GetObjectRequest(bucketName, key).withRange(start, end);
+        if (eTag != null) {
+            request.withMatchingETagConstraint(eTag);
+        }
+        S3Object s3Object = amazonS3.getObject(request);
+        if (s3Object == null) {
+            throw new StaleBlobException(key, eTag); // the SDK returns null when the ETag constraint fails
+        }
+        S3ObjectInputStream inputStream = s3Object.getObjectContent();
+        boolean complete = false;
+        try {
+            byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+            for (int read; (read = inputStream.read(buffer)) != -1; ) {
+                out.write(buffer, 0, read);
+            }
+            complete = true;
+        } finally {
+            if (complete) {
+                inputStream.close();
+            } else {
+                inputStream.abort(); // client went away mid-stream, don't drain the rest of the object
+            }
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        amazonS3.deleteObject(bucketName, key);
+    }
+}
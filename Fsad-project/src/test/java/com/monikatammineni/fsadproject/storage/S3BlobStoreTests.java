@@ -0,0 +1,22 @@
+package com.monikatammineni.fsadproject.storage;
+
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
+import org.junit.jupiter.api.AfterEach;
+
+class S3BlobStoreTests extends BlobStoreConformanceTests {
+
+    private TransferManager transferManager;
+
+    @Override
+    BlobStore createStore() {
+        InMemoryAmazonS3 amazonS3 = new InMemoryAmazonS3();
+        transferManager = TransferManagerBuilder.standard().withS3Client(amazonS3).build();
+        return new S3BlobStore(amazonS3, transferManager, "test-bucket");
+    }
+
+    @AfterEach
+    void shutDownTransferManager() {
+        transferManager.shutdownNow(false);
+    }
+}
@@ -0,0 +1,11 @@
+package com.monikatammineni.fsadproject.storage;
+
+import java.io.IOException;
+
+// The object under a key no longer has the ETag a read was pinned to, i.e. it was replaced since it was stat'ed
+public class StaleBlobException extends IOException {
+
+    public StaleBlobException(String key, String expectedETag) {
+        super("Object " + key + " no longer matches ETag " + expectedETag);
+    }
+}
@@ -1,15 +1,16 @@
-import React, { useState, useEffect, useMemo } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { Dialog, DialogTitle } from '@headlessui/react';
 import { AUTH_ENDPOINTS } from '../utils/endpoints';
+import { fetchPage } from '../utils/pagedFetch';
 import toast from 'react-hot-toast';
 
 interface Patient {
   id: number;
   firstName: string;
   lastName: string;
+  email: string;
   gender: string;
   mobileNumber: string;
-  email: string;
   dateOfBirth: string;
 }
 
@@ -22,13 +23,15 @@ interface Props {
 const columnOptions = [
   { label: 'First Name', value: 'firstName' },
   { label: 'Last Name', value: 'lastName' },
+  { label: 'Email', value: 'email' },
   { label: 'Gender', value: 'gender' },
   { label: 'Phone', value: 'mobileNumber' },
-  { label: 'Email', value: 'email' },
 ];
 
 const PatientSelectorModal: React.FC<Props> = ({ isOpen, onClose, onSelect }) => {
   const [patients, setPatients] = useState<Patient[]>([]);
+  const [page, setPage] = useState(0);
+  const [hasNext, setHasNext] = useState(false);
   const [selectedPatient, setSelectedPatient] = useState<Patient | null>(null);
   const [searchColumn, setSearchColumn] = useState('firstName');
   const [searchTerm, setSearchTerm] = useState('');
@@ -37,38 +40,27 @@ const PatientSelectorModal: React.FC<Props> = ({ isOpen, onClose, onSelect }) =>
   const [sortKey, setSortKey] = useState<keyof Patient | ''>('');
   const [sortOrder, setSortOrder] = useState<'asc' | 'desc'>('asc');
 
-  useEffect(() => {
-    if (!isOpen) return;
-    fetch(`${AUTH_ENDPOINTS.allPatients}?token=${token}`)
-      .then(res => res.json())
-      .then(data => {
-        if (Array.isArray(data.body)) {
-          setPatients(data.body);
-        } else {
-          toast.error('Invalid patient data format');
-        }
+  const requestId = useRef(0);
+
+  const loadPage = (next: number) => {
+    const id = ++requestId.current;
+    fetchPage<Patient>(`${AUTH_ENDPOINTS.allPatients}?token=${token}`, next, 50,
+      { q: searchTerm, field: searchColumn, sort: sortKey, dir: sortOrder })
+      .then(({ items, hasNext }) => {
+        if (id !== requestId.current) return; // superseded by a newer search or sort
+        setPatients(prev => (next === 0 ? items : [...prev, ...items]));
+        setPage(next);
+        setHasNext(hasNext);
       })
       .catch(err => toast.error(`Failed to fetch patients: ${err.message}`));
-  }, [isOpen, token]);
-
-  const filteredPatients = useMemo(() => {
-    if (!searchTerm) return patients;
-    return patients.filter((p) =>
-      (p as any)[searchColumn]?.toString().toLowerCase().includes(searchTerm.toLowerCase())
-    );
-  }, [searchTerm, searchColumn, patients]);
-
-  const sortedPatients = useMemo(() => {
-    const sorted = [...filteredPatients];
-    if (sortKey) {
-      sorted.sort((a, b) => {
-        const valA = (a[sortKey] ?? '').toString().toLowerCase();
-        const valB = (b[sortKey] ?? '').toString().toLowerCase();
-        return sortOrder === 'asc' ? valA.localeCompare(valB) : valB.localeCompare(valA);
-      });
-    }
-    return sorted;
-  }, [filteredPatients, sortKey, sortOrder]);
+  };
+
+  // Searching and sorting reload from the first page; typing is debounced so each keystroke isn't a request
+  useEffect(() => {
+    if (!isOpen) return;
+    const timer = setTimeout(() => loadPage(0), 300);
+    return () => clearTimeout(timer);
+  }, [isOpen, token, searchTerm, searchColumn, sortKey, sortOrder]);
 
   const handleReset = () => {
     setSearchTerm('');
@@ -165,15 +157,15 @@ const PatientSelectorModal: React.FC<Props> = ({ isOpen, onClose, onSelect }) =>
                 <th className="p-2 text-left cursor-pointer text-gray-800 dark:text-white" onClick={() => handleSort('lastName')}>
                   Last Name {sortKey === 'lastName' && (sortOrder === 'asc' ? '↑' : '↓')}
                 </th>
+                <th className="p-2 text-left cursor-pointer text-gray-800 dark:text-white" onClick={() => handleSort('email')}>
+                  Email {sortKey === 'email' && (sortOrder === 'asc' ? '↑' : '↓')}
+                </th>
                 <th className="p-2 text-left cursor-pointer text-gray-800 dark:text-white" onClick={() => handleSort('gender')}>
                   Gender {sortKey === 'gender' && (sortOrder === 'asc' ? '↑' : '↓')}
                 </th>
                 <th className="p-2 text-left cursor-pointer text-gray-800 dark:text-white" onClick={() => handleSort('mobileNumber')}>
                   Phone {sortKey === 'mobileNumber' && (sortOrder === 'asc' ? '↑' : '↓')}
                 </th>
-                <th className="p-2 text-left cursor-pointer text-gray-800 dark:text-white" onClick={() => handleSort('email')}>
-                  Email {sortKey === 'email' && (sortOrder === 'asc' ? '↑' : '↓')}
-                </th>
                 <th className="p-2 text-left text-gray-800 dark:text-white">
                   Age
                 </th>
@@ -183,14 +175,14 @@ const PatientSelectorModal: React.FC<Props> = ({ isOpen, onClose, onSelect }) =>
               </tr>
             </thead>
             <tbody>
-              {sortedPatients.length === 0 ? (
+              {patients.length === 0 ? (
                 <tr>
-                  <td colSpan={7} className="text-center py-4 text-gray-500 dark:text-gray-400">
+                  <td colSpan={8} className="text-center py-4 text-gray-500 dark:text-gray-400">
                     No results found
                   </td>
                 </tr>
               ) : (
-                sortedPatients.map((p) => (
+                patients.map((p) => (
                   <tr
                     key={p.id}
                     className={`cursor-pointer hover:bg-gray-100 dark:hover:bg-gray-700 ${selectedPatient?.id === p.id ? 'bg-blue-100 dark:bg-blue-900' : ''}`}
@@ -199,9 +191,9 @@ const PatientSelectorModal: React.FC<Props> = ({ isOpen, onClose, onSelect }) =>
                     <td className="p-2 text-gray-900 dark:text-gray-100">{p.id}</td>
                     <td className="p-2 text-gray-900 dark:text-gray-100">{p.firstName}</td>
                     <td className="p-2 text-gray-900 dark:text-gray-100">{p.lastName}</td>
+                    <td className="p-2 text-gray-900 dark:text-gray-100">{p.email}</td>
                     <td className="p-2 text-gray-900 dark:text-gray-100">{p.gender}</td>
                     <td className="p-2 text-gray-900 dark:text-gray-100">{p.mobileNumber}</td>
-                    <td className="p-2 text-gray-900 dark:text-gray-100 max-w-[200px] truncate">{p.email}</td>
                     <td className="p-2 text-gray-900 dark:text-gray-100">
                       {Math.floor((Date.now() - new Date(p.dateOfBirth).getTime()) / (1000 * 60 * 60 * 24 * 365.25))}
                     </td>
@@ -215,6 +207,16 @@ const PatientSelectorModal: React.FC<Props> = ({ isOpen, onClose, onSelect }) =>
               )}
             </tbody>
           </table>
+          {hasNext && (
+            <div className="flex justify-center py-2">
+              <button
+                onClick={() => loadPage(page + 1)}
+                className="px-3 py-1 text-sm rounded bg-gray-200 hover:bg-gray-300 dark:bg-gray-700 dark:hover:bg-gray-600 text-gray-900 dark:text-gray-100"
+              >
+                Load more
+              </button>
+            </div>
+          )}
         </div>
 
         {/* Action Buttons */}
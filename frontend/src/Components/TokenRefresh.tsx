@@ -0,0 +1,28 @@
+import React, { useEffect } from 'react';
+import { useLocation, useNavigate } from 'react-router-dom';
+import { scheduleTokenRefresh, clearTokenRefresh } from '../utils/tokenManager';
+
+// Keeps the short-lived access token fresh on every route, not just inside the dashboard; rescheduled on
+// navigation so a token stored by sign-in is picked up right away
+const TokenRefresh: React.FC = () => {
+    const navigate = useNavigate();
+    const location = useLocation();
+
+    useEffect(() => {
+        if (!localStorage.getItem('token')) {
+            clearTokenRefresh();
+            return;
+        }
+        scheduleTokenRefresh(() => {
+            clearTokenRefresh();
+            localStorage.clear();
+            navigate('/signin', { replace: true });
+        });
+    }, [location.pathname]);
+
+    useEffect(() => () => clearTokenRefresh(), []);
+
+    return null;
+};
+
+export default TokenRefresh;
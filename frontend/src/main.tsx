@@ -16,11 +16,13 @@ import AccountSettings from "./pages/AccountSettings/AccountSettings.tsx";
 import Appointments from "./pages/Appointments/Appointments.tsx";
 import Timeline from "./pages/Timeline/Timeline.tsx";
 import Reports from "./pages/Reports/Reports.tsx";
+import TokenRefresh from './Components/TokenRefresh.tsx';
 
 createRoot(document.getElementById('root')!).render(
     <StrictMode>
         <BrowserRouter>
             <Toaster position="bottom-right" reverseOrder={false} />
+            <TokenRefresh />
             <Routes>
                 <Route path="/" element={<App />} />
                 <Route path="/signin" element={<SignIn />} />
@@ -1,5 +1,6 @@
-import React, { useState, useEffect, useMemo } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { AUTH_ENDPOINTS } from '../../utils/endpoints';
+import { fetchPage } from '../../utils/pagedFetch';
 import toast from 'react-hot-toast';
 
 interface User {
@@ -8,66 +9,72 @@ interface User {
     lastName: string;
     gender: string;
     mobileNumber: string;
-    email: string;
     dateOfBirth: string;
-    address: string;
-    // accountType: string;
+    accountType: string;
     status: boolean;
-    createdOn: string;
+}
+
+// The list rows only carry the columns above; the rest is loaded when a row is opened for editing
+interface UserDetails extends User {
+    email: string;
+    address: string;
 }
 
 const columnOptions = [
     { label: 'First Name', value: 'firstName' },
     { label: 'Last Name', value: 'lastName' },
-    { label: 'Gender', value: 'gender' },
-    { label: 'Phone', value: 'mobileNumber' },
     { label: 'Email', value: 'email' },
-    { label: 'Address', value: 'address' }
+    { label: 'Gender', value: 'gender' },
+    { label: 'Phone', value: 'mobileNumber' }
 ];
 
 const AllUsers: React.FC = () => {
     const [patients, setPatients] = useState<User[]>([]);
+    const [page, setPage] = useState(0);
+    const [hasNext, setHasNext] = useState(false);
     const [searchColumn, setSearchColumn] = useState('firstName');
     const [searchTerm, setSearchTerm] = useState('');
     const [sortKey, setSortKey] = useState<keyof User | ''>('');
     const [sortOrder, setSortOrder] = useState<'asc' | 'desc'>('asc');
 
     const [editPatientId, setEditPatientId] = useState<number | null>(null);
-    const [editedPatient, setEditedPatient] = useState<Partial<User>>({});
+    const [editedPatient, setEditedPatient] = useState<Partial<UserDetails>>({});
 
     const token = typeof window !== 'undefined' ? localStorage.getItem('token') : null;
 
+    const requestId = useRef(0);
+
+    const loadPage = (next: number) => {
+        const id = ++requestId.current;
+        fetchPage<User>(`${AUTH_ENDPOINTS.getAllUsers}?token=${token}`, next, 50,
+            { q: searchTerm, field: searchColumn, sort: sortKey, dir: sortOrder })
+            .then(({ items, hasNext }) => {
+                if (id !== requestId.current) return; // superseded by a newer search or sort
+                setPatients(prev => (next === 0 ? items : [...prev, ...items]));
+                setPage(next);
+                setHasNext(hasNext);
+            })
+            .catch(err => toast.error(`Failed to fetch users: ${err.message}`));
+    };
+
+    // Searching and sorting reload from the first page; typing is debounced so each keystroke isn't a request
     useEffect(() => {
-        fetch(`${AUTH_ENDPOINTS.getAllUsers}?token=${token}`)
+        const timer = setTimeout(() => loadPage(0), 300);
+        return () => clearTimeout(timer);
+    }, [token, searchTerm, searchColumn, sortKey, sortOrder]);
+
+    const startEdit = (id: number) => {
+        fetch(`${AUTH_ENDPOINTS.getUserDetails}?token=${token}&user_id=${id}`)
             .then(res => res.json())
             .then(data => {
-                if (Array.isArray(data.body)) {
-                    setPatients(data.body);
-                } else {
-                    toast.error('Invalid user data format');
+                if (!data.body || data.body.id !== id) {
+                    throw new Error(typeof data.body === 'string' ? data.body : 'User not found');
                 }
+                setEditPatientId(id);
+                setEditedPatient(data.body);
             })
-            .catch(err => toast.error(`Failed to fetch users: ${err.message}`));
-    }, [token]);
-
-    const filteredPatients = useMemo(() => {
-        if (!searchTerm) return patients;
-        return patients.filter((p) =>
-            (p as any)[searchColumn]?.toString().toLowerCase().includes(searchTerm.toLowerCase())
-        );
-    }, [searchTerm, searchColumn, patients]);
-
-    const sortedPatients = useMemo(() => {
-        const sorted = [...filteredPatients];
-        if (sortKey) {
-            sorted.sort((a, b) => {
-                const valA = (a[sortKey] ?? '').toString().toLowerCase();
-                const valB = (b[sortKey] ?? '').toString().toLowerCase();
-                return sortOrder === 'asc' ? valA.localeCompare(valB) : valB.localeCompare(valA);
-            });
-        }
-        return sorted;
-    }, [filteredPatients, sortKey, sortOrder]);
+            .catch(err => toast.error(`Failed to load user: ${err.message}`));
+    };
 
     const handleSort = (key: keyof User) => {
         if (sortKey === key) {
@@ -119,7 +126,7 @@ const AllUsers: React.FC = () => {
                 <table className="w-full text-sm">
                     <thead className="bg-gray-100 dark:bg-gray-800 sticky top-0">
                     <tr>
-                        {['id', 'firstName', 'lastName', 'gender', 'mobileNumber', 'email', 'address', 'status', 'createdOn', 'dateOfBirth'].map((key) => (
+                        {['id', 'firstName', 'lastName', 'gender', 'mobileNumber', 'status', 'dateOfBirth'].map((key) => (
                             <th
                                 key={key}
                                 className="p-2 text-left cursor-pointer text-gray-800 dark:text-white"
@@ -132,19 +139,16 @@ const AllUsers: React.FC = () => {
                     </tr>
                     </thead>
                     <tbody>
-                    {sortedPatients.length === 0 ? (
+                    {patients.length === 0 ? (
                         <tr>
                             <td colSpan={12} className="text-center py-4 text-gray-500 dark:text-gray-400">No results found</td>
                         </tr>
                     ) : (
-                        sortedPatients.map((p) => (
+                        patients.map((p) => (
                             <tr
                                 key={p.id}
                                 className="hover:bg-gray-100 dark:hover:bg-gray-800"
-                                onDoubleClick={() => {
-                                    setEditPatientId(p.id);
-                                    setEditedPatient({ ...p });
-                                }}
+                                onDoubleClick={() => startEdit(p.id)}
                             >
                                 <td className="p-2 text-gray-900 dark:text-gray-100">{p.id}</td>
                                 <td className="p-2 text-gray-900 dark:text-gray-100">
@@ -199,30 +203,6 @@ const AllUsers: React.FC = () => {
                                         p.mobileNumber
                                     )}
                                 </td>
-                                <td className="p-2 text-gray-900 dark:text-gray-100 max-w-[200px] truncate">
-                                    {editPatientId === p.id ? (
-                                        <input
-                                            type="text"
-                                            value={editedPatient.email ?? ''}
-                                            onChange={(e) => setEditedPatient(prev => ({ ...prev, email: e.target.value }))}
-                                            className="w-full px-2 py-1 border rounded"
-                                        />
-                                    ) : (
-                                        p.email
-                                    )}
-                                </td>
-                                <td className="p-2 text-gray-900 dark:text-gray-100">
-                                    {editPatientId === p.id ? (
-                                        <input
-                                            type="text"
-                                            value={editedPatient.address ?? ''}
-                                            onChange={(e) => setEditedPatient(prev => ({ ...prev, address: e.target.value }))}
-                                            className="w-full px-2 py-1 border rounded"
-                                        />
-                                    ) : (
-                                        p.address
-                                    )}
-                                </td>
                                 {/*<td className="p-2 text-gray-900 dark:text-gray-100">{p.accountType}</td>*/}
                                 <td className="p-2 text-gray-900 dark:text-gray-100">
                                     {editPatientId === p.id ? (
@@ -241,7 +221,6 @@ const AllUsers: React.FC = () => {
                                         p.status ? 'Active' : 'Inactive'
                                     )}
                                 </td>
-                                <td className="p-2 text-gray-900 dark:text-gray-100">{new Date(p.createdOn).toLocaleString()}</td>
                                 <td className="p-2 text-gray-900 dark:text-gray-100">
                                     {editPatientId === p.id ? (
                                         <input
@@ -277,6 +256,34 @@ const AllUsers: React.FC = () => {
                     </tbody>
                 </table>
             </div>
+            {hasNext && (
+                <div className="mt-2 flex justify-center">
+                    <button
+                        onClick={() => loadPage(page + 1)}
+                        className="px-3 py-1 text-sm bg-gray-200 hover:bg-gray-300 dark:bg-gray-700 dark:hover:bg-gray-600 rounded text-gray-900 dark:text-gray-100"
+                    >
+                        Load more
+                    </button>
+                </div>
+            )}
+            {editPatientId && (
+                <div className="mt-4 flex gap-2">
+                    <input
+                        type="text"
+                        placeholder="Email"
+                        value={editedPatient.email ?? ''}
+                        onChange={(e) => setEditedPatient(prev => ({ ...prev, email: e.target.value }))}
+                        className="w-full px-2 py-1 border rounded"
+                    />
+                    <input
+                        type="text"
+                        placeholder="Address"
+                        value={editedPatient.address ?? ''}
+                        onChange={(e) => setEditedPatient(prev => ({ ...prev, address: e.target.value }))}
+                        className="w-full px-2 py-1 border rounded"
+                    />
+                </div>
+            )}
             {editPatientId && (
                 <div className="mt-4 flex justify-end gap-2">
                     <button
@@ -59,6 +59,30 @@ const ViewAppointments: React.FC = () => {
         .catch(() => toast.error('Failed to load doctors'));
   }, []);
 
+  /* --- live updates (replaces re-fetching for status changes) --- */
+  useEffect(() => {
+    const token = localStorage.getItem('token');
+    const source = new EventSource(
+        `${AUTH_ENDPOINTS.appointmentEvents}?token=${encodeURIComponent(token ?? '')}`
+    );
+
+    source.addEventListener('UPDATED', e => {
+      const ev = JSON.parse((e as MessageEvent).data);
+      setAppointments(prev =>
+          prev.map(a => (a.appointmentId === ev.appointmentId
+              ? { ...a, status: ev.status, doctorId: ev.doctorId,
+                  appointmentDate: ev.appointmentDate, appointmentTime: ev.appointmentTime }
+              : a)),
+      );
+    });
+    source.addEventListener('DELETED', e => {
+      const ev = JSON.parse((e as MessageEvent).data);
+      setAppointments(prev => prev.filter(a => a.appointmentId !== ev.appointmentId));
+    });
+
+    return () => source.close();
+  }, []);
+
   /* --- derived lists --- */
   const filtered = useMemo(() => {
     if (!searchQuery) return appointments;
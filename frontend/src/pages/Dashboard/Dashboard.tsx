@@ -4,6 +4,7 @@ import {
 } from 'lucide-react';
 import classNames from 'classnames';
 import { useNavigate, useLocation, Outlet } from 'react-router-dom';
+import { clearTokenRefresh } from '../../utils/tokenManager';
 
 const navItemsForDoctors = [
     { label: 'Dashboard', icon: <LayoutDashboard />, path: '/dashboard' },
@@ -60,6 +61,7 @@ const DashboardLayout: React.FC = () => {
     }, []);
 
     const logout = () => {
+        clearTokenRefresh();
         localStorage.clear();
         navigate('/signin', { replace: true });
     };
@@ -31,6 +31,7 @@ const SignIn: React.FC = () => {
                 toast.success('Login successful!');
                 // Store token or user data if needed
                 localStorage.setItem('token', data.token); // Assuming the token is returned
+                localStorage.setItem('refreshToken', data.refreshToken);
                 localStorage.setItem('firstName', data.firstName);
                 localStorage.setItem('lastName', data.lastName);
                 localStorage.setItem('accountType', data.accountType);
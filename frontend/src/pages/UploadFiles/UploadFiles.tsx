@@ -3,6 +3,10 @@ import { AUTH_ENDPOINTS } from '../../utils/endpoints';
 import toast from 'react-hot-toast';
 import './UploadFiles.css';
 import PatientSelectorModal from '../../Components/PatientSelectorModal';
+import { chunkedUpload } from '../../utils/chunkedUpload';
+
+// Above this size files go up in resumable parts instead of one form post
+const CHUNKED_UPLOAD_THRESHOLD = 16 * 1024 * 1024;
 
 
 const UploadFiles: React.FC = () => {
@@ -49,6 +53,23 @@ const UploadFiles: React.FC = () => {
             return;
         }
 
+        if (file.size > CHUNKED_UPLOAD_THRESHOLD) {
+            const toastId = toast.loading('Uploading 0%');
+            try {
+                await chunkedUpload(file, category, patientUserId, token, (fraction) =>
+                    toast.loading(`Uploading ${Math.floor(fraction * 100)}%`, { id: toastId }));
+                toast.success('File uploaded successfully', { id: toastId });
+                setFile(null);
+                setCategory('');
+                setPatientUserId('');
+                setSelectedPatient(null);
+            } catch (error) {
+                console.error('Upload error:', error);
+                toast.error('Upload interrupted, submit again to resume', { id: toastId });
+            }
+            return;
+        }
+
         const formData = new FormData();
         formData.append('file', file);
 
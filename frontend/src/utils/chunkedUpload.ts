@@ -0,0 +1,89 @@
+import { AUTH_ENDPOINTS } from './endpoints';
+
+interface UploadStatus {
+    uploadId: string;
+    fileCode: string;
+    totalSize: number;
+    partSize: number;
+    partCount: number;
+    uploadedParts: number[];
+    uploadedBytes: number;
+}
+
+const PARALLEL_PARTS = 3;
+
+// Remembers the upload id per file so a retry after a dropped connection resumes instead of starting over
+const resumeKey = (file: File, patientUserId: string) =>
+    `pendingUpload:${patientUserId}:${file.name}:${file.size}:${file.lastModified}`;
+
+const query = (params: Record<string, string | number>) =>
+    Object.entries(params).map(([k, v]) => `${k}=${encodeURIComponent(v)}`).join('&');
+
+const startOrResume = async (file: File, category: string, patientUserId: string, token: string): Promise<UploadStatus> => {
+    const savedId = localStorage.getItem(resumeKey(file, patientUserId));
+    if (savedId) {
+        const res = await fetch(`${AUTH_ENDPOINTS.multipartStatus}?${query({ uploadId: savedId, token })}`);
+        if (res.ok) {
+            return res.json();
+        }
+        localStorage.removeItem(resumeKey(file, patientUserId));
+    }
+    const res = await fetch(`${AUTH_ENDPOINTS.multipartInitiate}?${query({
+        fileName: file.name,
+        category,
+        patient_user_id: patientUserId,
+        fileSize: file.size,
+        contentType: file.type,
+        token,
+    })}`, { method: 'POST' });
+    if (!res.ok) {
+        throw new Error(await res.text());
+    }
+    const status: UploadStatus = await res.json();
+    localStorage.setItem(resumeKey(file, patientUserId), status.uploadId);
+    return status;
+};
+
+// Uploads a large file in parts, a few at a time, reporting progress as a fraction between 0 and 1
+export const chunkedUpload = async (
+    file: File,
+    category: string,
+    patientUserId: string,
+    token: string,
+    onProgress: (fraction: number) => void,
+): Promise<void> => {
+    const status = await startOrResume(file, category, patientUserId, token);
+    const done = new Set(status.uploadedParts);
+    const pending: number[] = [];
+    for (let part = 1; part <= status.partCount; part++) {
+        if (!done.has(part)) {
+            pending.push(part);
+        }
+    }
+
+    let uploadedBytes = status.uploadedBytes;
+    onProgress(uploadedBytes / file.size);
+    const worker = async () => {
+        for (let part = pending.shift(); part !== undefined; part = pending.shift()) {
+            const start = (part - 1) * status.partSize;
+            const blob = file.slice(start, Math.min(start + status.partSize, file.size));
+            const res = await fetch(`${AUTH_ENDPOINTS.multipartPart}?${query({ uploadId: status.uploadId, partNumber: part, token })}`, {
+                method: 'PUT',
+                headers: { 'Content-Type': 'application/octet-stream' },
+                body: blob,
+            });
+            if (!res.ok) {
+                throw new Error(await res.text());
+            }
+            uploadedBytes += blob.size;
+            onProgress(uploadedBytes / file.size);
+        }
+    };
+    await Promise.all(Array.from({ length: PARALLEL_PARTS }, worker));
+
+    const res = await fetch(`${AUTH_ENDPOINTS.multipartComplete}?${query({ uploadId: status.uploadId, token })}`, { method: 'POST' });
+    if (!res.ok) {
+        throw new Error(await res.text());
+    }
+    localStorage.removeItem(resumeKey(file, patientUserId));
+};
@@ -2,8 +2,13 @@ const BASE_URL = 'http://3.110.209.24:8080'
 
 export const AUTH_ENDPOINTS = {
     login: `${BASE_URL}/auth/login`,
+    refreshToken: `${BASE_URL}/auth/refreshToken`,
     register: `${BASE_URL}/auth/register`,
     uploadFile: `${BASE_URL}/s3/upload`,
+    multipartInitiate: `${BASE_URL}/s3/multipart/initiate`,
+    multipartPart: `${BASE_URL}/s3/multipart/part`,
+    multipartStatus: `${BASE_URL}/s3/multipart/status`,
+    multipartComplete: `${BASE_URL}/s3/multipart/complete`,
     allPatients: `${BASE_URL}/auth/getAllPatients`,
     validToken: `${BASE_URL}/auth/isValidToken`,
     getPatientFileDetails: `${BASE_URL}/auth/getPatientFileDetails`,
@@ -13,10 +18,14 @@ export const AUTH_ENDPOINTS = {
     deleteFile: `${BASE_URL}/s3/deleteFile`,
     updateFile: `${BASE_URL}/s3/updateFile`,
     getAllUsers: `${BASE_URL}/auth/getAllUsers`,
+    getUserDetails: `${BASE_URL}/auth/getUserDetails`,
     changePassword: `${BASE_URL}/auth/changePassword`,
     getAllDoctorsList: `${BASE_URL}/auth/getAllDoctorsList`,
     createAppointment: `${BASE_URL}/appointment/createAppointment`,
     getAllAppointments: `${BASE_URL}/appointment/getAllAppointments`,
+    listAppointments: `${BASE_URL}/appointment/listAppointments`,
+    availability: `${BASE_URL}/appointment/availability`,
+    appointmentEvents: `${BASE_URL}/appointment/events`,
     editAppointment: `${BASE_URL}/appointment/editAppointment`,
     deleteAppointment: `${BASE_URL}/appointment/deleteAppointment`,
     getPatientFiles: `${BASE_URL}/auth/getPatientFiles`,
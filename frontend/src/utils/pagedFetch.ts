@@ -0,0 +1,27 @@
+export interface PageResult<T> {
+    items: T[];
+    hasNext: boolean;
+}
+
+// Search and sort are applied by the server, so they cover every row and not just the pages loaded so far
+export interface PageQuery {
+    q?: string;
+    field?: string;
+    sort?: string;
+    dir?: 'asc' | 'desc';
+}
+
+// Loads a single page of a paginated list endpoint whose response wraps {users, page, hasNext} in `body`
+export const fetchPage = async <T>(url: string, page: number, pageSize = 50, query: PageQuery = {}): Promise<PageResult<T>> => {
+    const params = new URLSearchParams({ page: String(page), size: String(pageSize) });
+    Object.entries(query).forEach(([key, value]) => {
+        if (value) params.set(key, value);
+    });
+    const separator = url.includes('?') ? '&' : '?';
+    const res = await fetch(`${url}${separator}${params}`);
+    const data = await res.json();
+    if (!data.body || !Array.isArray(data.body.users)) {
+        throw new Error('Invalid data format');
+    }
+    return { items: data.body.users, hasNext: data.body.hasNext };
+};
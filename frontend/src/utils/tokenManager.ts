@@ -1,3 +1,5 @@
+import { AUTH_ENDPOINTS } from "./endpoints";
+
 export const decodeJWT = (token: string): { exp: number } | null => {
     try {
         const payload = JSON.parse(atob(token.split('.')[1]));
@@ -7,35 +9,47 @@ export const decodeJWT = (token: string): { exp: number } | null => {
     }
 };
 
-let logoutTimer: ReturnType<typeof setTimeout> | null = null;
+let refreshTimer: ReturnType<typeof setTimeout> | null = null;
 
-export const setupAutoLogout = (
-    token: string,
-    onExpire: () => void
-) => {
-    const payload = decodeJWT(token);
+// Access tokens are short-lived; swap the stored refresh token for a new one a minute before expiry
+export const scheduleTokenRefresh = (onFailure: () => void) => {
+    const token = localStorage.getItem('token');
+    const payload = token ? decodeJWT(token) : null;
     if (!payload || !payload.exp) return;
 
     const currentTime = Math.floor(Date.now() / 1000);
-    const secondsUntilExpiry = payload.exp - currentTime;
-
-    if (secondsUntilExpiry <= 0) {
-        onExpire();
-        return;
-    }
+    const secondsUntilRefresh = Math.max(payload.exp - currentTime - 60, 0);
 
-    console.log(`⏳ Token will expire in ${secondsUntilExpiry} seconds`);
-
-    if (logoutTimer) clearTimeout(logoutTimer);
-    logoutTimer = setTimeout(() => {
-        console.warn('🔒 Token expired. Logging out.');
-        onExpire();
-    }, secondsUntilExpiry * 1000);
+    if (refreshTimer) clearTimeout(refreshTimer);
+    refreshTimer = setTimeout(async () => {
+        const refreshToken = localStorage.getItem('refreshToken');
+        if (!refreshToken) {
+            onFailure();
+            return;
+        }
+        try {
+            // Sent as a header rather than in the URL, which ends up in access and proxy logs
+            const res = await fetch(AUTH_ENDPOINTS.refreshToken, {
+                method: 'POST',
+                headers: { 'X-Refresh-Token': refreshToken },
+            });
+            const data = await res.json();
+            if (data.validated) {
+                localStorage.setItem('token', data.token);
+                scheduleTokenRefresh(onFailure);
+            } else {
+                onFailure();
+            }
+        } catch (error) {
+            console.error('Token refresh failed:', error);
+            onFailure();
+        }
+    }, secondsUntilRefresh * 1000);
 };
 
-export const clearAutoLogout = () => {
-    if (logoutTimer) {
-        clearTimeout(logoutTimer);
-        logoutTimer = null;
+export const clearTokenRefresh = () => {
+    if (refreshTimer) {
+        clearTimeout(refreshTimer);
+        refreshTimer = null;
     }
-};
\ No newline at end of file
+};